@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transforming all fabric-api classes with the Yarn mappings, excluding reading and propagation.
+ *
+ * <p>The remapper keeps the input data, so every invocation repeats the class transformation only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ApplyBenchmark {
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		dir = Files.createTempDirectory("tr-apply-bench");
+		remapper = TinyRemapper.newRemapper()
+				.withMappings(BenchmarkFixtures.compileYarn())
+				.keepInputData(true)
+				.threads(threads)
+				.descriptorCacheSize(descriptorCacheSize)
+				.build();
+		remapper.readInputs(BenchmarkFixtures.extractFabricApi(dir).toArray(new Path[0]));
+		// propagate once so the invocations only measure the transformation
+		remapper.apply((name, data) -> { });
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		remapper.finish();
+		BenchmarkFixtures.deleteRecursively(dir);
+	}
+
+	@Benchmark
+	public long apply() {
+		LongAdder size = new LongAdder();
+		remapper.apply((name, data) -> size.add(data.length));
+
+		return size.sum();
+	}
+
+	@Param({"1", "0"}) // 0 = default thread count
+	public int threads;
+
+	@Param({"0", "4096"}) // 0 = descriptor cache disabled
+	public int descriptorCacheSize;
+
+	private Path dir;
+	private TinyRemapper remapper;
+}
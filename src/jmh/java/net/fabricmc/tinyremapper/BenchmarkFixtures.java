@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Shared fixtures for the benchmarks, based on the bulk test resources.
+ */
+final class BenchmarkFixtures {
+	/**
+	 * Extract the jars nested in the bundled fabric-api jar.
+	 */
+	static List<Path> extractFabricApi(Path dir) throws IOException {
+		List<Path> ret = new ArrayList<>();
+		Files.createDirectories(dir);
+
+		try (ZipInputStream zis = new ZipInputStream(getInputStream("integration/bulk/fabric-api-0.35.1+1.17.jar"))) {
+			ZipEntry entry;
+
+			while ((entry = zis.getNextEntry()) != null) {
+				if (!entry.isDirectory() && entry.getName().endsWith(".jar")) {
+					String name = entry.getName();
+					Path file = dir.resolve(name.substring(name.lastIndexOf('/') + 1));
+					Files.copy(zis, file);
+					ret.add(file);
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Extract the classes of all fabric-api jars into a directory tree, optionally with copies for MRJ versions.
+	 *
+	 * @param mrjVersions MRJ versions to additionally store all classes for in META-INF/versions
+	 */
+	static void extractFabricApiClasses(Path dir, int... mrjVersions) throws IOException {
+		for (Path jar : extractFabricApi(dir.resolve("jars"))) {
+			try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(jar))) {
+				ZipEntry entry;
+
+				while ((entry = zis.getNextEntry()) != null) {
+					if (entry.isDirectory() || !entry.getName().endsWith(".class") || entry.getName().startsWith("META-INF/")) continue;
+
+					byte[] data = readAll(zis);
+					write(dir.resolve("classes").resolve(entry.getName()), data);
+
+					for (int version : mrjVersions) {
+						write(dir.resolve("classes/META-INF/versions/"+version).resolve(entry.getName()), data);
+					}
+				}
+			}
+		}
+	}
+
+	static BufferedReader getMappingReader() throws IOException {
+		InputStream is = getInputStream("mapping/yarn-1.17+build.9-v2.tiny.gz");
+
+		return new BufferedReader(new InputStreamReader(new GZIPInputStream(is), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Load the bundled Yarn mappings, from intermediary to named.
+	 */
+	static CompiledMappings compileYarn() throws IOException {
+		try (BufferedReader reader = getMappingReader()) {
+			return CompiledMappings.compile(TinyUtils.createTinyMappingProvider(reader, "intermediary", "named"), false);
+		}
+	}
+
+	static void deleteRecursively(Path dir) throws IOException {
+		if (!Files.exists(dir)) return;
+
+		Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+				Files.delete(dir);
+
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private static void write(Path file, byte[] data) throws IOException {
+		Files.createDirectories(file.getParent());
+		Files.write(file, data);
+	}
+
+	private static byte[] readAll(InputStream is) throws IOException {
+		byte[] buffer = new byte[8192];
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		int len;
+
+		while ((len = is.read(buffer)) >= 0) {
+			os.write(buffer, 0, len);
+		}
+
+		return os.toByteArray();
+	}
+
+	private static InputStream getInputStream(String file) {
+		return BenchmarkFixtures.class.getClassLoader().getResourceAsStream(file);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.fabricmc.tinyremapper.api.TrClass;
+import net.fabricmc.tinyremapper.api.TrEnvironment;
+import net.fabricmc.tinyremapper.api.TrField;
+import net.fabricmc.tinyremapper.api.TrMethod;
+
+/**
+ * Member name lookups through {@link AsmRemapper} for every member declared by the fabric-api classes, plus the same
+ * lookups against a subclass to include resolution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MappingLookupBenchmark {
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		dir = Files.createTempDirectory("tr-lookup-bench");
+		remapper = TinyRemapper.newRemapper().withMappings(BenchmarkFixtures.compileYarn()).build();
+		remapper.readInputs(BenchmarkFixtures.extractFabricApi(dir).toArray(new Path[0]));
+
+		TrEnvironment env = remapper.getEnvironment();
+		asmRemapper = (AsmRemapper) env.getRemapper();
+
+		for (ClassInstance cls : remapper.defaultState.classes.values()) {
+			for (TrMethod method : cls.getMethods()) {
+				methods.add(new String[] { cls.getName(), method.getName(), method.getDesc() });
+			}
+
+			for (TrField field : cls.getFields()) {
+				fields.add(new String[] { cls.getName(), field.getName(), field.getDesc() });
+			}
+
+			for (TrClass child : cls.getChildren()) { // inherited members need resolution
+				for (TrMethod method : cls.getMethods()) {
+					methods.add(new String[] { child.getName(), method.getName(), method.getDesc() });
+				}
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		remapper.finish();
+		BenchmarkFixtures.deleteRecursively(dir);
+	}
+
+	@Benchmark
+	public void mapMethodName(Blackhole bh) {
+		for (String[] method : methods) {
+			bh.consume(asmRemapper.mapMethodName(method[0], method[1], method[2]));
+		}
+	}
+
+	@Benchmark
+	public void mapFieldName(Blackhole bh) {
+		for (String[] field : fields) {
+			bh.consume(asmRemapper.mapFieldName(field[0], field[1], field[2]));
+		}
+	}
+
+	private Path dir;
+	private TinyRemapper remapper;
+	private AsmRemapper asmRemapper;
+	private final List<String[]> methods = new ArrayList<>();
+	private final List<String[]> fields = new ArrayList<>();
+}
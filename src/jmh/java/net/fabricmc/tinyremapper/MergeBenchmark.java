@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.fabricmc.tinyremapper.api.TrEnvironment;
+
+/**
+ * Hierarchy linking and MRJ state setup for the fabric-api classes, with the classes duplicated into several MRJ
+ * versions.
+ *
+ * <p>Compare threads=1 against the default thread count to see the effect of the parallelization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MergeBenchmark {
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		dir = Files.createTempDirectory("tr-merge-bench");
+		BenchmarkFixtures.extractFabricApiClasses(dir, 9, 11, 16, 17);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		remapper = TinyRemapper.newRemapper().threads(threads).build();
+		remapper.readInputs(dir.resolve("classes"));
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() {
+		remapper.finish();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		BenchmarkFixtures.deleteRecursively(dir);
+	}
+
+	@Benchmark
+	public TrEnvironment merge() {
+		// populates all MRJ states and links + propagates the default state
+		return remapper.getEnvironment();
+	}
+
+	@Param({"1", "0"}) // 0 = default thread count
+	public int threads;
+
+	private Path dir;
+	private TinyRemapper remapper;
+}
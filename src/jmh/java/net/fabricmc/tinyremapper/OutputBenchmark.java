@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing the remapped fabric-api classes to a jar, supplied concurrently like apply() does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class OutputBenchmark {
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		dir = Files.createTempDirectory("tr-output-bench");
+		TinyRemapper remapper = TinyRemapper.newRemapper().withMappings(BenchmarkFixtures.compileYarn()).build();
+
+		try {
+			remapper.readInputs(BenchmarkFixtures.extractFabricApi(dir.resolve("jars")).toArray(new Path[0]));
+			remapper.apply(classes::put);
+		} finally {
+			remapper.finish();
+		}
+
+		threadPool = Executors.newFixedThreadPool(Math.max(Runtime.getRuntime().availableProcessors(), 2));
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() throws IOException {
+		Files.deleteIfExists(dir.resolve("out.jar"));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		threadPool.shutdown();
+		BenchmarkFixtures.deleteRecursively(dir);
+	}
+
+	@Benchmark
+	public Path write() throws Exception {
+		Path output = dir.resolve("out.jar");
+
+		if (consumer.equals("path")) {
+			try (OutputConsumerPath out = new OutputConsumerPath.Builder(output).build()) {
+				write(out);
+			}
+		} else {
+			try (OutputConsumerJar out = new OutputConsumerJar.Builder(output).compress(!consumer.equals("jarStored")).build()) {
+				write(out);
+			}
+		}
+
+		return output;
+	}
+
+	private <T extends BiConsumer<String, byte[]> & Closeable> void write(T consumer) throws Exception {
+		List<Future<?>> futures = new ArrayList<>(classes.size());
+
+		for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+			futures.add(threadPool.submit(() -> consumer.accept(entry.getKey(), entry.getValue())));
+		}
+
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	@Param({"path", "jar", "jarStored"})
+	public String consumer;
+
+	private Path dir;
+	private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+	private ExecutorService threadPool;
+}
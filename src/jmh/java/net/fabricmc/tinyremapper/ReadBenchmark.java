@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading the fabric-api jars as inputs or as classpath.
+ *
+ * <p>The zipfs reader passes the jars as zip file system roots, which reads them through zipfs like tiny-remapper
+ * did before {@link ZipReader}. It serves as the baseline for the default zip reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReadBenchmark {
+	@Setup(Level.Trial)
+	public void setupTrial() throws IOException {
+		dir = Files.createTempDirectory("tr-read-bench");
+		jars = BenchmarkFixtures.extractFabricApi(dir).toArray(new Path[0]);
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		remapper = TinyRemapper.newRemapper().threads(threads).build();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() throws IOException {
+		remapper.finish();
+
+		for (FileSystemReference fs : fileSystems) {
+			fs.close();
+		}
+
+		fileSystems.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException {
+		BenchmarkFixtures.deleteRecursively(dir);
+	}
+
+	@Benchmark
+	public TinyRemapper readInputs() throws IOException {
+		remapper.readInputs(getInputs());
+
+		return remapper;
+	}
+
+	@Benchmark
+	public TinyRemapper readClassPath() throws IOException {
+		remapper.readClassPath(getInputs());
+
+		return remapper;
+	}
+
+	private Path[] getInputs() throws IOException {
+		if (reader.equals("zip")) return jars;
+
+		Path[] ret = new Path[jars.length];
+
+		for (int i = 0; i < jars.length; i++) {
+			FileSystemReference fs = FileSystemReference.openJar(jars[i]);
+			fileSystems.add(fs);
+			ret[i] = fs.getPath("/");
+		}
+
+		return ret;
+	}
+
+	@Param({"1", "0"}) // 0 = default thread count
+	public int threads;
+	@Param({"zip", "zipfs"})
+	public String reader;
+
+	private Path dir;
+	private Path[] jars;
+	private TinyRemapper remapper;
+	private final List<FileSystemReference> fileSystems = new ArrayList<>();
+}
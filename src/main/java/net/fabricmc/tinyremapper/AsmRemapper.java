@@ -43,6 +43,90 @@ class AsmRemapper extends TrRemapper {
 		return tr.extraRemapper != null ? tr.extraRemapper.map(typeName) : typeName;
 	}
 
+	@Override
+	public String mapDesc(String descriptor) {
+		if (!mayReferenceMappedClass(descriptor, false)) return descriptor;
+
+		DescriptorCache cache = tr.descriptorCache;
+		if (cache == null) return super.mapDesc(descriptor);
+
+		String ret = cache.get(descriptor, false);
+
+		if (ret == null) {
+			ret = super.mapDesc(descriptor);
+			cache.put(descriptor, false, ret);
+		}
+
+		return ret;
+	}
+
+	@Override
+	public String mapMethodDesc(String methodDescriptor) {
+		if (!mayReferenceMappedClass(methodDescriptor, false)) return methodDescriptor;
+
+		DescriptorCache cache = tr.descriptorCache;
+		if (cache == null) return super.mapMethodDesc(methodDescriptor);
+
+		String ret = cache.get(methodDescriptor, false); // field and method descriptors can't be equal
+
+		if (ret == null) {
+			ret = super.mapMethodDesc(methodDescriptor);
+			cache.put(methodDescriptor, false, ret);
+		}
+
+		return ret;
+	}
+
+	@Override
+	public String mapSignature(String signature, boolean typeSignature) {
+		if (signature == null || !mayReferenceMappedClass(signature, true)) return signature;
+
+		DescriptorCache cache = tr.signatureCache;
+		if (cache == null) return super.mapSignature(signature, typeSignature);
+
+		String ret = cache.get(signature, typeSignature);
+
+		if (ret == null) {
+			ret = super.mapSignature(signature, typeSignature);
+			cache.put(signature, typeSignature, ret);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Determine whether a descriptor or signature may reference a class with a mapping, without allocating.
+	 *
+	 * <p>If not, remapping it would only reproduce the input. Signatures aren't parsed, every 'L' is considered the
+	 * start of a class name ending at the next ';', '<' or '.', false positives only cost the regular remapping.
+	 * Inner class suffixes in signatures map through their outer class, so any signature that may contain one is
+	 * assumed affected.
+	 */
+	boolean mayReferenceMappedClass(String s, boolean isSignature) {
+		if (tr.extraRemapper != null) return true;
+		if (tr.classMap.isEmpty()) return false;
+		if (isSignature && s.contains(">.")) return true;
+
+		int len = s.length();
+		int start = s.indexOf('L');
+
+		while (start >= 0) {
+			int end = start + 1;
+			char c;
+
+			while (end < len && (c = s.charAt(end)) != ';' && c != '<' && c != '.') {
+				end++;
+			}
+
+			if (isSignature && end < len && s.charAt(end) == '.') return true;
+			if (tr.classMap.get(s, start + 1, end) != null) return true;
+
+			start = s.indexOf('L', isSignature ? start + 1 : end);
+		}
+
+		return false;
+	}
+
 	@Override
 	public String mapFieldName(String owner, String name, String desc) {
 		ClassInstance cls = getClass(owner);
@@ -52,14 +136,14 @@ class AsmRemapper extends TrRemapper {
 	}
 
 	final String mapFieldName(ClassInstance cls, String name, String desc) {
-		MemberInstance member = cls.resolve(TrMember.MemberType.FIELD, MemberInstance.getFieldId(name, desc, tr.ignoreFieldDesc));
+		MemberInstance member = cls.resolve(TrMember.MemberType.FIELD, name, desc);
 		String newName;
 
 		if (member != null && (newName = member.getNewName()) != null) {
 			return newName;
 		}
 
-		assert (newName = tr.fieldMap.get(cls.getName()+"/"+MemberInstance.getFieldId(name, desc, tr.ignoreFieldDesc))) == null || newName.equals(name);
+		assert (newName = tr.fieldMap.get(cls.getName(), name, desc, -1)) == null || newName.equals(name);
 
 		return tr.extraRemapper != null ? tr.extraRemapper.mapFieldName(cls.getName(), name, desc) : name;
 	}
@@ -82,14 +166,14 @@ class AsmRemapper extends TrRemapper {
 	}
 
 	final String mapMethodName(ClassInstance cls, String name, String desc) {
-		MemberInstance member = cls.resolve(TrMember.MemberType.METHOD, MemberInstance.getMethodId(name, desc));
+		MemberInstance member = cls.resolve(TrMember.MemberType.METHOD, name, desc);
 		String newName;
 
 		if (member != null && (newName = member.getNewName()) != null) {
 			return newName;
 		}
 
-		assert (newName = tr.methodMap.get(cls.getName()+"/"+MemberInstance.getMethodId(name, desc))) == null || newName.equals(name);
+		assert (newName = tr.methodMap.get(cls.getName(), name, desc, -1)) == null || newName.equals(name);
 
 		return tr.extraRemapper != null ? tr.extraRemapper.mapMethodName(cls.getName(), name, desc) : name;
 	}
@@ -120,22 +204,22 @@ class AsmRemapper extends TrRemapper {
 
 	@Override
 	public String mapMethodArg(String methodOwner, String methodName, String methodDesc, int lvIndex, String name) {
-		String newName = tr.methodArgMap.get(methodOwner+"/"+MemberInstance.getMethodId(methodName, methodDesc)+lvIndex);
+		String newName = tr.methodArgMap.get(methodOwner, methodName, methodDesc, lvIndex);
 		if (newName != null) return newName;
 
 		ClassInstance cls = getClass(methodOwner);
 		if (cls == null) return name;
 
-		MemberInstance originatingMethod = cls.resolve(TrMember.MemberType.METHOD, MemberInstance.getMethodId(methodName, methodDesc));
-		if (originatingMethod == null) return name;
+		MemberInstance originatingMethod = cls.resolve(TrMember.MemberType.METHOD, methodName, methodDesc);
+		if (originatingMethod == null || originatingMethod.newNameOriginatingCls == null) return name;
 
-		String originatingNewName = tr.methodArgMap.get(originatingMethod.newNameOriginatingCls+"/"+MemberInstance.getMethodId(originatingMethod.name, originatingMethod.desc)+lvIndex);
+		String originatingNewName = tr.methodArgMap.get(originatingMethod.newNameOriginatingCls, originatingMethod.name, originatingMethod.desc, lvIndex);
 
 		return originatingNewName != null ? originatingNewName : name;
 	}
 
 	public String mapMethodVar(String methodOwner, String methodName, String methodDesc, int lvIndex, int startOpIdx, int asmIndex, String name) {
-		String newName = tr.methodVarMap.get(methodOwner+"/"+MemberInstance.getMethodId(methodName, methodDesc)+lvIndex);
+		String newName = tr.methodVarMap.get(methodOwner, methodName, methodDesc, lvIndex);
 		return newName != null ? newName : name;
 	}
 
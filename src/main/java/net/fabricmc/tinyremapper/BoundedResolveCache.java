@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.fabricmc.tinyremapper.api.TrMember.MemberType;
+
+/**
+ * Size limited member resolution cache shared by all classes of a remapper, replacing the unbounded per class caches.
+ *
+ * <p>The entries are spread across independently locked segments, each evicting its least recently used entry once
+ * full. Failed resolutions are cached as placeholders without owner like in the per class caches.
+ */
+final class BoundedResolveCache {
+	BoundedResolveCache(int maxSize, boolean ignoreFieldDesc) {
+		if (maxSize <= 0) throw new IllegalArgumentException("invalid max size: "+maxSize);
+
+		this.maxSize = maxSize;
+		this.ignoreFieldDesc = ignoreFieldDesc;
+
+		int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(maxSegments, maxSize / minSegmentSize)));
+		int segmentSize = (maxSize + segmentCount - 1) / segmentCount;
+		segments = new Segment[segmentCount];
+
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment(segmentSize);
+		}
+	}
+
+	MemberInstance get(ClassInstance cls, MemberType type, String name, String desc) {
+		Key key = new Key(cls, type, name, type == MemberType.FIELD && ignoreFieldDesc ? null : desc);
+		Segment segment = getSegment(key);
+
+		synchronized (segment) {
+			return segment.get(key);
+		}
+	}
+
+	/**
+	 * Store the resolution result for cls unless there is one already.
+	 *
+	 * @return the previously cached member or null if the supplied member got stored
+	 */
+	MemberInstance putIfAbsent(ClassInstance cls, MemberInstance member) {
+		Key key = new Key(cls, member.type, member.name, member.type == MemberType.FIELD && ignoreFieldDesc ? null : member.desc);
+		Segment segment = getSegment(key);
+
+		synchronized (segment) {
+			return segment.putIfAbsent(key, member);
+		}
+	}
+
+	void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	int size() {
+		int ret = 0;
+
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				ret += segment.size();
+			}
+		}
+
+		return ret;
+	}
+
+	private Segment getSegment(Key key) {
+		int hash = key.hashCode();
+
+		return segments[(hash ^ hash >>> 16) & (segments.length - 1)];
+	}
+
+	private static final class Key {
+		Key(ClassInstance cls, MemberType type, String name, /* @Nullable */ String desc) {
+			this.cls = cls;
+			this.type = type;
+			this.name = name;
+			this.desc = desc;
+			this.hash = (System.identityHashCode(cls) * 31 + name.hashCode()) * 31 + (desc != null ? desc.hashCode() : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+
+			Key o = (Key) obj;
+
+			return cls == o.cls
+					&& type == o.type
+					&& name.equals(o.name)
+					&& (desc == null ? o.desc == null : desc.equals(o.desc));
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		final ClassInstance cls;
+		final MemberType type;
+		final String name;
+		final String desc;
+		private final int hash;
+	}
+
+	private final class Segment extends LinkedHashMap<Key, MemberInstance> {
+		Segment(int maxSize) {
+			super(16, 0.75f, true);
+
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, MemberInstance> eldest) {
+			if (size() <= maxSize) return false;
+
+			evictions.increment();
+
+			return true;
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxSize;
+	}
+
+	private static final int maxSegments = 64;
+	private static final int minSegmentSize = 1024;
+
+	final int maxSize;
+	private final boolean ignoreFieldDesc;
+	private final Segment[] segments;
+	final LongAdder evictions = new LongAdder();
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression for class data being retained in memory, optimized for speed over ratio.
+ *
+ * <p>Deflaters and inflaters are pooled since their native state is expensive to set up for every class. Instances
+ * are thread safe.
+ */
+final class ClassDataCompressor {
+	/**
+	 * Compress class data.
+	 *
+	 * @return the compressed data or null if it doesn't get smaller.
+	 */
+	byte[] compress(byte[] data) {
+		return deflaters.deflate(data);
+	}
+
+	/**
+	 * Decompress class data as returned by {@link #compress}.
+	 *
+	 * @param size Size of the uncompressed data.
+	 */
+	byte[] decompress(byte[] data, int size) {
+		Inflater inflater = inflaters.poll();
+		if (inflater == null) inflater = new Inflater(true);
+
+		try {
+			inflater.setInput(data);
+
+			byte[] ret = new byte[size];
+			int len = 0;
+
+			while (len < size) {
+				int read = inflater.inflate(ret, len, size - len);
+				if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) break;
+
+				len += read;
+			}
+
+			if (len != size) throw new IllegalStateException("truncated compressed class data");
+
+			return ret;
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("corrupt compressed class data", e);
+		} finally {
+			inflater.reset();
+			inflaters.offer(inflater);
+		}
+	}
+
+	/**
+	 * Release the pooled native resources, the instance stays usable.
+	 */
+	void close() {
+		deflaters.close();
+
+		for (Inflater inflater; (inflater = inflaters.poll()) != null; ) {
+			inflater.end();
+		}
+	}
+
+	private final DeflaterPool deflaters = new DeflaterPool(Deflater.BEST_SPEED);
+	private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Streaming class file scanner that only extracts the data needed to analyze classpath classes.
+ *
+ * <p>The scanner reads the class from a stream in a single pass. Only the constant pool is retained, all attribute
+ * bodies including Code are skipped without being buffered. The visitor passed to {@link #accept} receives the same
+ * visit, visitField and visitMethod calls with the same access flags as from {@link org.objectweb.asm.ClassReader}
+ * with SKIP_CODE, but no annotations, attributes, field/method signatures, constant values or exceptions.
+ *
+ * <p>Usage is {@link #readHeader} followed by either {@link #accept} or {@link #readFully}. Instances aren't thread
+ * safe, but may be reused for multiple classes to recycle their buffers.
+ */
+final class ClassHeaderScanner {
+	/**
+	 * Read the class header up to and including the this_class index.
+	 */
+	void readHeader(InputStream in) throws IOException {
+		this.in = in;
+		bufPos = bufLimit = 0;
+		headLength = 0;
+
+		copy(10);
+		if (readInt(head, 0) != 0xcafebabe) throw new IOException("invalid class file magic");
+
+		int cpCount = readUnsignedShort(head, 8);
+
+		if (cpOffsets.length < cpCount) {
+			cpOffsets = new int[Math.max(cpCount, cpOffsets.length * 2)];
+			cpStrings = new String[cpOffsets.length];
+		} else {
+			Arrays.fill(cpStrings, 0, cpCount, null);
+		}
+
+		this.cpCount = cpCount;
+
+		for (int i = 1; i < cpCount; i++) {
+			int tagOffset = headLength;
+			copy(1);
+			int tag = head[tagOffset];
+			cpOffsets[i] = tagOffset + 1;
+
+			switch (tag) {
+			case CONSTANT_UTF8:
+				copy(2);
+				copy(readUnsignedShort(head, tagOffset + 1));
+				break;
+			case CONSTANT_CLASS:
+			case CONSTANT_STRING:
+			case CONSTANT_METHOD_TYPE:
+			case CONSTANT_MODULE:
+			case CONSTANT_PACKAGE:
+				copy(2);
+				break;
+			case CONSTANT_METHOD_HANDLE:
+				copy(3);
+				break;
+			case CONSTANT_INTEGER:
+			case CONSTANT_FLOAT:
+			case CONSTANT_FIELDREF:
+			case CONSTANT_METHODREF:
+			case CONSTANT_INTERFACE_METHODREF:
+			case CONSTANT_NAME_AND_TYPE:
+			case CONSTANT_DYNAMIC:
+			case CONSTANT_INVOKE_DYNAMIC:
+				copy(4);
+				break;
+			case CONSTANT_LONG:
+			case CONSTANT_DOUBLE:
+				copy(8);
+				i++; // takes 2 cp slots
+				break;
+			default:
+				throw new IOException("invalid constant pool tag "+tag+" at index "+i);
+			}
+		}
+
+		int offset = headLength;
+		copy(4);
+		access = readUnsignedShort(head, offset);
+		thisClass = readUnsignedShort(head, offset + 2);
+	}
+
+	/**
+	 * Get the access flags as stored in the class file, without any pseudo flags derived from attributes.
+	 */
+	int getAccess() {
+		return access;
+	}
+
+	String getClassName() throws IOException {
+		return readClass(thisClass);
+	}
+
+	/**
+	 * Read the remainder of the class, reporting the class and its members to the visitor.
+	 */
+	void accept(ClassVisitor cv) throws IOException {
+		int version = readInt(head, 4);
+		int superIndex = readUnsignedShort();
+		String superName = superIndex != 0 ? readClass(superIndex) : null;
+		String[] interfaces = new String[readUnsignedShort()];
+
+		for (int i = 0; i < interfaces.length; i++) {
+			interfaces[i] = readClass(readUnsignedShort());
+		}
+
+		// the class attributes are located after the members, so the members have to be recorded first
+
+		int fieldCount = readMembers(0);
+		int methodCount = readMembers(fieldCount);
+
+		int access = this.access;
+		String signature = null;
+
+		for (int i = readUnsignedShort(); i > 0; i--) {
+			int nameIndex = readUnsignedShort();
+			long length = readInt() & 0xffffffffL;
+
+			if (utf8Equals(nameIndex, "Signature")) {
+				if (length != 2) throw new IOException("invalid Signature attribute");
+				signature = readUtf8(readUnsignedShort());
+			} else {
+				if (utf8Equals(nameIndex, "Synthetic")) {
+					access |= Opcodes.ACC_SYNTHETIC;
+				} else if (utf8Equals(nameIndex, "Deprecated")) {
+					access |= Opcodes.ACC_DEPRECATED;
+				} else if (utf8Equals(nameIndex, "Record")) {
+					access |= Opcodes.ACC_RECORD;
+				}
+
+				skip(length);
+			}
+		}
+
+		cv.visit(version, access, getClassName(), signature, superName, interfaces);
+
+		for (int i = 0; i < fieldCount + methodCount; i++) {
+			int memberAccess = members[i * 3];
+			String name = readUtf8(members[i * 3 + 1]);
+			String desc = readUtf8(members[i * 3 + 2]);
+
+			if (i < fieldCount) {
+				FieldVisitor fv = cv.visitField(memberAccess, name, desc, null, null);
+				if (fv != null) fv.visitEnd();
+			} else {
+				MethodVisitor mv = cv.visitMethod(memberAccess, name, desc, null, null);
+				if (mv != null) mv.visitEnd();
+			}
+		}
+
+		cv.visitEnd();
+		in = null;
+	}
+
+	/**
+	 * Read the complete class file, including the already consumed header.
+	 */
+	byte[] readFully() throws IOException {
+		byte[] ret = Arrays.copyOf(head, headLength + (bufLimit - bufPos) + Math.max(in.available(), 1024));
+		System.arraycopy(buf, bufPos, ret, headLength, bufLimit - bufPos);
+		int length = headLength + bufLimit - bufPos;
+		int read;
+
+		while ((read = in.read(ret, length, ret.length - length)) >= 0) {
+			length += read;
+			if (length == ret.length) ret = Arrays.copyOf(ret, ret.length * 2);
+		}
+
+		in = null;
+
+		return length == ret.length ? ret : Arrays.copyOf(ret, length);
+	}
+
+	/**
+	 * Read a field or method table, storing access, name index and desc index for each member.
+	 *
+	 * @return member count
+	 */
+	private int readMembers(int start) throws IOException {
+		int count = readUnsignedShort();
+		int end = (start + count) * 3;
+		if (members.length < end) members = Arrays.copyOf(members, Math.max(end, members.length * 2));
+
+		for (int i = start * 3; i < end; i += 3) {
+			int access = readUnsignedShort();
+			members[i + 1] = readUnsignedShort();
+			members[i + 2] = readUnsignedShort();
+
+			for (int j = readUnsignedShort(); j > 0; j--) {
+				int nameIndex = readUnsignedShort();
+				long length = readInt() & 0xffffffffL;
+
+				if (utf8Equals(nameIndex, "Synthetic")) {
+					access |= Opcodes.ACC_SYNTHETIC;
+				} else if (utf8Equals(nameIndex, "Deprecated")) {
+					access |= Opcodes.ACC_DEPRECATED;
+				}
+
+				skip(length);
+			}
+
+			members[i] = access;
+		}
+
+		return count;
+	}
+
+	private String readClass(int index) throws IOException {
+		checkCpIndex(index);
+
+		return readUtf8(readUnsignedShort(head, cpOffsets[index]));
+	}
+
+	private String readUtf8(int index) throws IOException {
+		checkCpIndex(index);
+		String ret = cpStrings[index];
+		if (ret != null) return ret;
+
+		int offset = cpOffsets[index];
+		int length = readUnsignedShort(head, offset);
+		offset += 2;
+		int end = offset + length;
+		if (chars.length < length) chars = new char[Math.max(length, chars.length * 2)];
+		int charCount = 0;
+
+		while (offset < end) { // modified utf-8, see DataInput.readUTF
+			int b = head[offset++] & 0xff;
+
+			if (b < 0x80) {
+				chars[charCount++] = (char) b;
+			} else if ((b & 0xe0) == 0xc0 && offset < end) {
+				chars[charCount++] = (char) (((b & 0x1f) << 6) | (head[offset++] & 0x3f));
+			} else if ((b & 0xf0) == 0xe0 && offset + 1 < end) {
+				chars[charCount++] = (char) (((b & 0x0f) << 12) | ((head[offset] & 0x3f) << 6) | (head[offset + 1] & 0x3f));
+				offset += 2;
+			} else {
+				throw new IOException("malformed utf8 constant at index "+index);
+			}
+		}
+
+		ret = new String(chars, 0, charCount);
+		cpStrings[index] = ret;
+
+		return ret;
+	}
+
+	private boolean utf8Equals(int index, String str) throws IOException {
+		checkCpIndex(index);
+		int offset = cpOffsets[index];
+		int length = readUnsignedShort(head, offset);
+		if (length != str.length()) return false;
+
+		offset += 2;
+
+		for (int i = 0; i < length; i++) {
+			if (head[offset + i] != str.charAt(i)) return false;
+		}
+
+		return true;
+	}
+
+	private void checkCpIndex(int index) throws IOException {
+		if (index <= 0 || index >= cpCount) throw new IOException("invalid constant pool index "+index);
+	}
+
+	/**
+	 * Append the next length bytes from the stream to head.
+	 */
+	private void copy(int length) throws IOException {
+		if (head.length - headLength < length) head = Arrays.copyOf(head, Math.max(headLength + length, head.length * 2));
+
+		while (length > 0) {
+			if (bufPos == bufLimit) fill();
+
+			int count = Math.min(length, bufLimit - bufPos);
+			System.arraycopy(buf, bufPos, head, headLength, count);
+			bufPos += count;
+			headLength += count;
+			length -= count;
+		}
+	}
+
+	private void skip(long length) throws IOException {
+		for (;;) {
+			int count = (int) Math.min(length, bufLimit - bufPos);
+			bufPos += count;
+			length -= count;
+			if (length == 0) return;
+
+			fill();
+		}
+	}
+
+	private int readUnsignedShort() throws IOException {
+		ensure(2);
+		int ret = readUnsignedShort(buf, bufPos);
+		bufPos += 2;
+
+		return ret;
+	}
+
+	private int readInt() throws IOException {
+		ensure(4);
+		int ret = readInt(buf, bufPos);
+		bufPos += 4;
+
+		return ret;
+	}
+
+	private void ensure(int length) throws IOException {
+		if (bufLimit - bufPos >= length) return;
+
+		System.arraycopy(buf, bufPos, buf, 0, bufLimit - bufPos);
+		bufLimit -= bufPos;
+		bufPos = 0;
+
+		while (bufLimit < length) {
+			int read = in.read(buf, bufLimit, buf.length - bufLimit);
+			if (read < 0) throw new EOFException("truncated class file");
+
+			bufLimit += read;
+		}
+	}
+
+	private void fill() throws IOException {
+		int read = in.read(buf, 0, buf.length);
+		if (read < 0) throw new EOFException("truncated class file");
+
+		bufPos = 0;
+		bufLimit = read;
+	}
+
+	private static int readUnsignedShort(byte[] b, int offset) {
+		return (b[offset] & 0xff) << 8 | b[offset + 1] & 0xff;
+	}
+
+	private static int readInt(byte[] b, int offset) {
+		return b[offset] << 24 | (b[offset + 1] & 0xff) << 16 | (b[offset + 2] & 0xff) << 8 | b[offset + 3] & 0xff;
+	}
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+
+	private InputStream in;
+	private final byte[] buf = new byte[8192];
+	private int bufPos;
+	private int bufLimit;
+	private byte[] head = new byte[8192]; // class file bytes up to and including this_class
+	private int headLength;
+	private int cpCount;
+	private int[] cpOffsets = new int[256];
+	private String[] cpStrings = new String[256];
+	private char[] chars = new char[256];
+	private int[] members = new int[192];
+	private int access;
+	private int thisClass;
+}
@@ -26,13 +26,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Predicate;
 
@@ -57,8 +56,11 @@ public final class ClassInstance implements TrClass {
 		this.isInput = isInput;
 		this.inputTags = inputTags;
 		this.srcPath = srcFile;
-		this.data = data;
 		this.mrjOrigin = this;
+		this.members = new MemberTable(tr != null && tr.ignoreFieldDesc);
+		this.resolvedMembers = tr != null && tr.resolveCache != null ? null : new MemberTable(tr != null && tr.ignoreFieldDesc);
+		this.id = tr != null ? tr.classIdCounter.getAndIncrement() : 0;
+		setData(data);
 	}
 
 	void init(String name, int classVersion, int mrjVersion, String signature, String superName, int access, String[] interfaces) {
@@ -80,7 +82,7 @@ public final class ClassInstance implements TrClass {
 	}
 
 	MemberInstance addMember(MemberInstance member) {
-		return members.put(member.getId(), member);
+		return members.put(member);
 	}
 
 	void addInputTags(InputTag[] tags) {
@@ -242,20 +244,21 @@ public final class ClassInstance implements TrClass {
 	 * Rename the member src to dst and continue propagating in dir.
 	 *
 	 * @param type Member type.
-	 * @param idSrc Existing name.
+	 * @param nameSrc Existing name.
+	 * @param descSrc Existing desc.
 	 * @param nameDst New name.
 	 * @param dir Futher propagation direction.
 	 */
-	void propagate(MemberType type, String originatingCls, String idSrc, String nameDst,
+	void propagate(MemberType type, String originatingCls, String nameSrc, String descSrc, String nameDst,
 			Direction dir, boolean isVirtual, boolean fromBridge,
-			boolean first, Set<ClassInstance> visitedUp, Set<ClassInstance> visitedDown) {
+			boolean first, ClassVisitMarks visitedUp, ClassVisitMarks visitedDown) {
 		/*
 		 * initial private member or static method in interface: only local
 		 * non-virtual: up to matching member (if not already in this), then down until matching again (exclusive)
 		 * virtual: all across the hierarchy, only non-private|static can change direction - skip private|static in interfaces
 		 */
 
-		MemberInstance member = getMember(type, idSrc);
+		MemberInstance member = members.get(type, nameSrc, descSrc);
 
 		if (member != null) {
 			if (!first && !isVirtual) { // down propagation from non-virtual (static) member matching the signature again, which starts its own namespace
@@ -289,13 +292,15 @@ public final class ClassInstance implements TrClass {
 				MemberInstance bridgeTarget = BridgeHandler.getTarget(member);
 
 				if (bridgeTarget != null) {
-					Set<ClassInstance> visitedUpBridge = Collections.newSetFromMap(new IdentityHashMap<>());
-					Set<ClassInstance> visitedDownBridge = Collections.newSetFromMap(new IdentityHashMap<>());
+					ClassVisitMarks visitedUpBridge = visitedUp.nested();
+					ClassVisitMarks visitedDownBridge = visitedDown.nested();
+					visitedUpBridge.clear();
+					visitedDownBridge.clear();
 
 					visitedUpBridge.add(member.cls);
 					visitedDownBridge.add(member.cls);
 
-					propagate(TrMember.MemberType.METHOD, originatingCls, bridgeTarget.getId(), nameDst, Direction.DOWN, true, tr.propagateBridges == LinkedMethodPropagation.COMPATIBLE, false, visitedUpBridge, visitedDownBridge);
+					propagate(TrMember.MemberType.METHOD, originatingCls, bridgeTarget.name, bridgeTarget.desc, nameDst, Direction.DOWN, true, tr.propagateBridges == LinkedMethodPropagation.COMPATIBLE, false, visitedUpBridge, visitedDownBridge);
 				}
 			}
 		} else { // member == null
@@ -325,8 +330,10 @@ public final class ClassInstance implements TrClass {
 
 		if (dir == Direction.ANY || dir == Direction.UP || isVirtual && member != null && (member.access & (Opcodes.ACC_STATIC | Opcodes.ACC_PRIVATE)) == 0) {
 			for (ClassInstance node : parents) {
+				if (node.tr != tr) continue; // an overlay's base classes are read-only
+
 				if (visitedUp.add(node)) {
-					node.propagate(type, originatingCls, idSrc, nameDst,
+					node.propagate(type, originatingCls, nameSrc, descSrc, nameDst,
 							Direction.UP, isVirtual, fromBridge,
 							false, visitedUp, visitedDown);
 				}
@@ -336,7 +343,7 @@ public final class ClassInstance implements TrClass {
 		if (dir == Direction.ANY || dir == Direction.DOWN || isVirtual && member != null && (member.access & (Opcodes.ACC_STATIC | Opcodes.ACC_PRIVATE)) == 0) {
 			for (ClassInstance node : children) {
 				if (visitedDown.add(node)) {
-					node.propagate(type, originatingCls, idSrc, nameDst,
+					node.propagate(type, originatingCls, nameSrc, descSrc, nameDst,
 							Direction.DOWN, isVirtual, fromBridge,
 							false, visitedUp, visitedDown);
 				}
@@ -439,7 +446,7 @@ public final class ClassInstance implements TrClass {
 		String subName = subDesc.substring(subDescStart, subDescEnd);
 
 		ClassInstance superCls = context.getClass(superName);
-		if (superCls != null && superCls.children.isEmpty()) return false;
+		if (superCls != null && superCls.children.isEmpty() && superCls.tr == context.tr) return false; // an overlay's base classes don't know the overlay's children
 
 		ClassInstance subCls = context.getClass(subName);
 
@@ -491,16 +498,20 @@ public final class ClassInstance implements TrClass {
 
 	@Override
 	public MemberInstance getField(String name, String desc) {
-		return members.get(MemberInstance.getFieldId(name, desc, tr.ignoreFieldDesc));
+		return members.get(MemberType.FIELD, name, desc);
 	}
 
 	@Override
 	public MemberInstance getMethod(String name, String desc) {
-		return members.get(MemberInstance.getMethodId(name, desc));
+		return members.get(MemberType.METHOD, name, desc);
+	}
+
+	public MemberInstance getMember(MemberType type, String name, String desc) {
+		return members.get(type, name, desc);
 	}
 
 	public MemberInstance getMember(MemberType type, String id) {
-		return members.get(id);
+		return members.get(type, id);
 	}
 
 	@Override
@@ -532,57 +543,149 @@ public final class ClassInstance implements TrClass {
 
 	@Override
 	public Collection<TrField> getFields(String name, String desc, boolean isDescPrefix, Predicate<TrField> filter, Collection<TrField> out) {
-		if (out == null) out = new ArrayList<>(members.size());
-
-		for (MemberInstance m : members.values()) {
-			if (m.isField() && matches(m, name, desc, isDescPrefix, filter)) out.add(m);
-		}
+		if (out == null) out = new ArrayList<>();
+		addMatchingMembers(MemberType.FIELD, name, desc, isDescPrefix, filter, out, false);
 
 		return out;
 	}
 
 	@Override
 	public Collection<TrMethod> getMethods(String name, String desc, boolean isDescPrefix, Predicate<TrMethod> filter, Collection<TrMethod> out) {
-		if (out == null) out = new ArrayList<>(members.size());
-
-		for (MemberInstance m : members.values()) {
-			if (m.isMethod() && matches(m, name, desc, isDescPrefix, filter)) out.add(m);
-		}
+		if (out == null) out = new ArrayList<>();
+		addMatchingMembers(MemberType.METHOD, name, desc, isDescPrefix, filter, out, false);
 
 		return out;
 	}
 
+	/**
+	 * Add all members matching the supplied type, name, desc and filter to out.
+	 *
+	 * <p>A name restricts the search to the members sharing it, an exact desc in addition narrows it to a single
+	 * table lookup.
+	 *
+	 * @param unique Whether to skip members with the same name and desc as one already in out.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends TrMember> void addMatchingMembers(MemberType type, String name, String desc, boolean isDescPrefix, Predicate<T> filter, Collection<T> out, boolean unique) {
+		if (name == null) {
+			for (MemberInstance m : members.values()) {
+				if (m.type == type) addMatching((T) m, name, desc, isDescPrefix, filter, out, unique);
+			}
+		} else if (desc != null && !isDescPrefix) {
+			MemberInstance m = members.get(type, name, desc);
+			if (m != null) addMatching((T) m, name, desc, isDescPrefix, filter, out, unique);
+		} else {
+			for (int slot = -1; (slot = members.nextNamed(name, slot)) >= 0; ) {
+				MemberInstance m = members.getSlot(slot);
+				if (m.type == type) addMatching((T) m, name, desc, isDescPrefix, filter, out, unique);
+			}
+		}
+	}
+
 	@Override
 	public MemberInstance resolveField(String name, String desc) {
-		return resolve(MemberType.FIELD, MemberInstance.getFieldId(name, desc, tr.ignoreFieldDesc));
+		return resolve(MemberType.FIELD, name, desc);
 	}
 
 	@Override
 	public MemberInstance resolveMethod(String name, String desc) {
-		return resolve(MemberType.METHOD, MemberInstance.getMethodId(name, desc));
+		return resolve(MemberType.METHOD, name, desc);
 	}
 
 	public MemberInstance resolve(MemberType type, String id) {
-		MemberInstance member = getMember(type, id);
+		MemberInstance member = members.get(type, id);
+		if (member != null) return member;
+
+		String name = MemberInstance.getNameFromId(type, id, tr.ignoreFieldDesc);
+		String desc;
+
+		if (type == MemberType.METHOD) {
+			desc = id.substring(name.length());
+		} else {
+			desc = tr.ignoreFieldDesc ? null : id.substring(name.length() + 2);
+		}
+
+		return resolve(type, name, desc);
+	}
+
+	public MemberInstance resolve(MemberType type, String name, String desc) {
+		MemberInstance member = members.get(type, name, desc);
 		if (member != null) return member;
 
+		ClassInstance delegate = resolveDelegate;
+		if (delegate != null) return delegate.resolve(type, name, desc);
+
 		// get from cache
-		member = resolvedMembers.get(id);
+		BoundedResolveCache cache = resolvedMembers == null ? tr.resolveCache : null;
+		member = cache != null ? cache.get(this, type, name, desc) : resolvedMembers.get(type, name, desc);
+
+		if (tr != null && tr.resolveCacheHits != null) {
+			(member != null || resolutionComplete ? tr.resolveCacheHits : tr.resolveCacheMisses).increment();
+		}
 
 		if (member == null) {
+			if (resolutionComplete) return null; // every member of the hierarchy is in the cache already
+
 			// compute
-			member = type == MemberType.FIELD ? resolveField(id) : resolveMethod(id);
-			assert member != null;
+			member = type == MemberType.FIELD ? resolveField0(name, desc) : resolveMethod0(name, desc);
 
-			// put in cache
-			MemberInstance prev = resolvedMembers.putIfAbsent(id, member);
+			// put in cache, failed resolutions are recorded as a placeholder without owner
+			if (member == null) member = new MemberInstance(type, null, name, desc, 0, 0);
+
+			MemberInstance prev = cache != null ? cache.putIfAbsent(this, member) : resolvedMembers.putIfAbsent(member);
 			if (prev != null) member = prev;
 		}
 
-		return member != nullMember ? member : null;
+		return member.cls != null ? member : null;
 	}
 
-	private MemberInstance resolveField(String id) {
+	/**
+	 * Resolve every member declared in the hierarchy above this class ahead of time.
+	 *
+	 * <p>Afterwards resolving a member only looks it up without any further modification of the resolution cache,
+	 * members not found are known to be unresolvable. A class without super interfaces and with only a super class
+	 * resolves like the super class for anything it doesn't declare itself. It shares the super class's resolution
+	 * instead of holding a copy of all inherited members, skipping the ancestors without members of their own. Only
+	 * interfaces and classes implementing interfaces get a complete cache, which keeps the memory cost close to the
+	 * lazy resolution's instead of multiplying it by the hierarchy depth.
+	 *
+	 * <p>Requires the hierarchy to be merged, may be invoked concurrently for different classes.
+	 */
+	void precomputeResolution() {
+		ClassInstance delegate = this;
+
+		while (!delegate.isInterface()
+				&& delegate.parents.size() == 1) {
+			ClassInstance parent = delegate.parents.iterator().next();
+			if (parent.isInterface()) break;
+
+			delegate = parent;
+			if (delegate.members.size() != 0) break; // closest ancestor contributing members
+		}
+
+		if (delegate != this) {
+			resolveDelegate = delegate;
+			return;
+		}
+
+		Set<ClassInstance> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<ClassInstance> queue = new ArrayDeque<>(parents);
+		ClassInstance cls;
+
+		while ((cls = queue.poll()) != null) {
+			if (!visited.add(cls)) continue;
+
+			for (MemberInstance member : cls.members.values()) {
+				resolve(member.type, member.name, member.desc);
+			}
+
+			queue.addAll(cls.parents);
+		}
+
+		resolutionComplete = true;
+	}
+
+	private MemberInstance resolveField0(String name, String desc) {
 		Deque<ClassInstance> queue = new ArrayDeque<>();
 		Set<ClassInstance> visited = Collections.newSetFromMap(new IdentityHashMap<>());
 		visited.add(this);
@@ -597,7 +700,7 @@ public final class ClassInstance implements TrClass {
 			do {
 				for (ClassInstance parent : cls.parents) {
 					if (parent.isInterface() && visited.add(parent)) {
-						MemberInstance ret = parent.getMember(MemberType.FIELD, id);
+						MemberInstance ret = parent.members.get(MemberType.FIELD, name, desc);
 						if (ret != null) return ret;
 
 						queue.addLast(parent);
@@ -612,17 +715,17 @@ public final class ClassInstance implements TrClass {
 			context = cls.getSuperClass();
 			if (context == null) break;
 
-			MemberInstance parentMember = context.getMember(MemberType.FIELD, id);
+			MemberInstance parentMember = context.members.get(MemberType.FIELD, name, desc);
 			if (parentMember != null) return parentMember;
 		}
 
-		return nullMember;
+		return null;
 	}
 
 	@Override
 	public Collection<TrField> resolveFields(String name, String desc, boolean isDescPrefix, Predicate<TrField> filter, Collection<TrField> out) {
 		if (name != null && (desc != null && !isDescPrefix || tr.ignoreFieldDesc)) {
-			MemberInstance ret = resolve(MemberType.FIELD, MemberInstance.getFieldId(name, desc, tr.ignoreFieldDesc));
+			MemberInstance ret = resolve(MemberType.FIELD, name, desc);
 			if (ret != null && filter != null && !filter.test(ret)) ret = null;
 
 			if (out == null) {
@@ -635,9 +738,7 @@ public final class ClassInstance implements TrClass {
 
 		if (out == null) out = new ArrayList<>();
 
-		for (MemberInstance member : getMembers()) {
-			if (member.isField()) ClassInstance.<TrField>addMatching(member, name, desc, isDescPrefix, filter, out);
-		}
+		addMatchingMembers(MemberType.FIELD, name, desc, isDescPrefix, filter, out, true);
 
 		Deque<ClassInstance> queue = new ArrayDeque<>();
 		Set<ClassInstance> visited = Collections.newSetFromMap(new IdentityHashMap<>());
@@ -653,9 +754,7 @@ public final class ClassInstance implements TrClass {
 			do {
 				for (ClassInstance parent : cls.parents) {
 					if (parent.isInterface() && visited.add(parent)) {
-						for (MemberInstance member : parent.getMembers()) {
-							if (member.isField()) addMatching(member, name, desc, isDescPrefix, filter, out);
-						}
+						parent.addMatchingMembers(MemberType.FIELD, name, desc, isDescPrefix, filter, out, true);
 
 						queue.addLast(parent);
 					}
@@ -669,22 +768,20 @@ public final class ClassInstance implements TrClass {
 			context = cls.getSuperClass();
 			if (context == null) break;
 
-			for (MemberInstance member : context.getMembers()) {
-				if (member.isField()) addMatching(member, name, desc, isDescPrefix, filter, out);
-			}
+			context.addMatchingMembers(MemberType.FIELD, name, desc, isDescPrefix, filter, out, true);
 		}
 
 		return out;
 	}
 
-	private MemberInstance resolveMethod(String id) {
+	private MemberInstance resolveMethod0(String name, String desc) {
 		// step 1
 		// search in all super classes recursively
 
 		ClassInstance cls = this;
 
 		while ((cls = cls.getSuperClass()) != null) {
-			MemberInstance ret = cls.getMember(MemberType.METHOD, id);
+			MemberInstance ret = cls.members.get(MemberType.METHOD, name, desc);
 			if (ret != null) return ret;
 		}
 
@@ -710,7 +807,7 @@ public final class ClassInstance implements TrClass {
 				if (!visited.add(parent)) continue;
 
 				if (parent.isInterface()) {
-					MemberInstance parentMember = parent.getMember(MemberType.METHOD, id);
+					MemberInstance parentMember = parent.members.get(MemberType.METHOD, name, desc);
 
 					if (parentMember != null && parentMember.isVirtual()) { // potential match
 						if (!parentMember.isAbstract()) hasNonAbstract = true;
@@ -738,13 +835,13 @@ public final class ClassInstance implements TrClass {
 
 		if (!matchedMethods.isEmpty()) return matchedMethods.get(0);
 
-		return nullMember;
+		return null;
 	}
 
 	@Override
 	public Collection<TrMethod> resolveMethods(String name, String desc, boolean isDescPrefix, Predicate<TrMethod> filter, Collection<TrMethod> out) {
 		if (name != null && desc != null && !isDescPrefix) {
-			MemberInstance ret = resolve(MemberType.METHOD, MemberInstance.getMethodId(name, desc));
+			MemberInstance ret = resolve(MemberType.METHOD, name, desc);
 			if (ret != null && filter != null && !filter.test(ret)) ret = null;
 
 			if (out == null) {
@@ -757,9 +854,7 @@ public final class ClassInstance implements TrClass {
 
 		if (out == null) out = new ArrayList<>();
 
-		for (MemberInstance member : getMembers()) {
-			if (member.isMethod()) addMatching(member, name, desc, isDescPrefix, filter, out);
-		}
+		addMatchingMembers(MemberType.METHOD, name, desc, isDescPrefix, filter, out, true);
 
 		// step 1
 		// search in all super classes recursively
@@ -767,9 +862,7 @@ public final class ClassInstance implements TrClass {
 		ClassInstance cls = this;
 
 		while ((cls = cls.getSuperClass()) != null) {
-			for (MemberInstance member : cls.getMembers()) {
-				if (member.isMethod()) addMatching(member, name, desc, isDescPrefix, filter, out);
-			}
+			cls.addMatchingMembers(MemberType.METHOD, name, desc, isDescPrefix, filter, out, true);
 		}
 
 		// step 2
@@ -794,11 +887,12 @@ public final class ClassInstance implements TrClass {
 				if (!visited.add(parent)) continue;
 
 				if (parent.isInterface()) {
-					for (MemberInstance member : parent.getMembers()) {
-						if (member.isMethod() && matches(member, name, desc, isDescPrefix, filter)) {
-							if (addUnique(member, matchedMethodsMap.computeIfAbsent(member.getId(), ignore -> new ArrayList<>()))) {
-								if (!member.isAbstract()) hasNonAbstract = true;
-							}
+					List<TrMethod> matches = new ArrayList<>();
+					parent.addMatchingMembers(MemberType.METHOD, name, desc, isDescPrefix, filter, matches, false);
+
+					for (TrMethod member : matches) {
+						if (addUnique(member, matchedMethodsMap.computeIfAbsent(((MemberInstance) member).getId(), ignore -> new ArrayList<>()))) {
+							if (!member.isAbstract()) hasNonAbstract = true;
 						}
 					}
 				}
@@ -846,15 +940,60 @@ public final class ClassInstance implements TrClass {
 		return true;
 	}
 
-	private static <T extends TrMember> void addMatching(T member, String name, String desc, boolean isDescPrefix, Predicate<T> filter, Collection<T> out) {
+	private static <T extends TrMember> void addMatching(T member, String name, String desc, boolean isDescPrefix, Predicate<T> filter, Collection<T> out, boolean unique) {
 		if (matches(member, name, desc, isDescPrefix, filter)) {
-			addUnique(member, out);
+			if (unique) {
+				addUnique(member, out);
+			} else {
+				out.add(member);
+			}
+		}
+	}
+
+	/**
+	 * Determine whether another instance of the same class has the same hierarchy and members.
+	 *
+	 * <p>Such an instance doesn't affect merging or propagation, so the results computed for this instance stay valid
+	 * for the other one.
+	 */
+	boolean hasSameShape(ClassInstance o) {
+		if (isInput != o.isInput
+				|| access != o.access
+				|| mrjVersion != o.mrjVersion
+				|| !name.equals(o.name)
+				|| !Objects.equals(superName, o.superName)
+				|| !Arrays.equals(interfaces, o.interfaces)
+				|| members.size() != o.members.size()) {
+			return false;
+		}
+
+		for (MemberInstance member : members.values()) {
+			MemberInstance oMember = o.members.get(member.type, member.name, member.desc);
+			if (oMember == null || oMember.access != member.access) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Discard the hierarchy links and all merge or propagation results to allow merging and propagating again.
+	 */
+	void resetState() {
+		parents.clear();
+		children.clear();
+		if (resolvedMembers != null) resolvedMembers.clear();
+		resolveDelegate = null;
+		resolutionComplete = false;
+
+		for (MemberInstance member : members.values()) {
+			member.resetNewName();
 		}
 	}
 
 	ClassInstance constructMrjCopy(MrjState newContext) {
 		// isInput should be false, since the MRJ copy should not be emitted
-		ClassInstance copy = new ClassInstance(tr, false, inputTags, srcPath, data);
+		ClassInstance copy = new ClassInstance(tr, false, inputTags, srcPath, null);
+		copy.copyData(this);
 		copy.init(name, classVersion, mrjVersion, signature, superName, access, interfaces);
 		copy.setContext(newContext);
 
@@ -867,8 +1006,52 @@ public final class ClassInstance implements TrClass {
 		return copy;
 	}
 
+	/**
+	 * Get the class file bytes, decompressing them if they are being retained compressed.
+	 *
+	 * @return the data or null if it isn't available.
+	 */
+	byte[] getData() {
+		byte[] data = this.data;
+		if (data == null || dataSize < 0) return data;
+
+		return tr.classDataCompressor.decompress(data, dataSize);
+	}
+
+	boolean hasData() {
+		return data != null;
+	}
+
+	/**
+	 * Set the class file bytes, compressing them if the remapper retains input data compressed.
+	 */
+	void setData(byte[] data) {
+		byte[] compressed = data != null && tr != null && tr.classDataCompressor != null ? tr.classDataCompressor.compress(data) : null;
+
+		if (compressed != null) {
+			this.data = compressed;
+			this.dataSize = data.length;
+		} else {
+			this.data = data;
+			this.dataSize = -1;
+		}
+	}
+
+	/**
+	 * Take over the data from another instance of the same remapper as is, without decompressing and compressing it.
+	 */
+	void copyData(ClassInstance o) {
+		this.data = o.data;
+		this.dataSize = o.dataSize;
+	}
+
+	boolean hasSameData(ClassInstance o) {
+		return dataSize == o.dataSize && Arrays.equals(data, o.data);
+	}
+
 	@Override
 	public void accept(ClassVisitor cv, int readerFlags) {
+		byte[] data = getData();
 		if (data == null) throw new IllegalStateException("data unavailable");
 
 		new ClassReader(data).accept(cv, readerFlags);
@@ -896,21 +1079,24 @@ public final class ClassInstance implements TrClass {
 	public static final String MRJ_PREFIX = "/META-INF/versions";
 
 	private static final String objectClassName = "java/lang/Object";
-	private static final MemberInstance nullMember = new MemberInstance(null, null, null, null, 0, 0);
 	private static final AtomicReferenceFieldUpdater<ClassInstance, InputTag[]> inputTagsUpdater = AtomicReferenceFieldUpdater.newUpdater(ClassInstance.class, InputTag[].class, "inputTags");
 
 	final TinyRemapper tr;
+	final int id; // dense per remapper, used for indexing ClassVisitMarks
 	private MrjState context;
 
 	final boolean isInput;
 	private volatile InputTag[] inputTags; // cow input tag list, null for none
 	final Path srcPath;
-	byte[] data;
+	private byte[] data; // compressed if dataSize >= 0
+	private int dataSize = -1; // uncompressed size of compressed data
 	private ClassInstance mrjOrigin;
-	private final Map<String, MemberInstance> members = new HashMap<>(); // methods and fields are distinct due to their different desc separators
-	private final ConcurrentMap<String, MemberInstance> resolvedMembers = new ConcurrentHashMap<>();
-	final Set<ClassInstance> parents = new HashSet<>();
-	final Set<ClassInstance> children = new HashSet<>();
+	private final MemberTable members;
+	private final MemberTable resolvedMembers; // resolution cache, concurrently populated through putIfAbsent, null if tr uses a bounded cache
+	private ClassInstance resolveDelegate; // ancestor resolving identically for undeclared members if resolution got precomputed, see precomputeResolution
+	private boolean resolutionComplete; // whether resolvedMembers holds all resolvable members
+	final Set<ClassInstance> parents = Collections.newSetFromMap(new ConcurrentHashMap<>()); // concurrent for parallel merging
+	final Set<ClassInstance> children = Collections.newSetFromMap(new ConcurrentHashMap<>());
 	private String name;
 	private int classVersion;
 	private int mrjVersion;
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash table for class mappings keyed by internal name.
+ *
+ * <p>Besides plain lookups the table supports looking up a region of a larger string such as a descriptor or
+ * signature, which avoids extracting the class name into a temporary string. The key hashes are computed once on
+ * construction, a lookup thus only hashes the queried name.
+ */
+final class ClassMappingTable {
+	ClassMappingTable(Map<String, String> map) {
+		int capacity = Integer.highestOneBit(Math.max(map.size() * 2, 8) - 1) << 1; // load factor at or below 0.5
+		keys = new String[capacity];
+		values = new String[capacity];
+		hashes = new int[capacity];
+		size = map.size();
+
+		int mask = capacity - 1;
+
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			String key = entry.getKey();
+			int hash = spread(key.hashCode());
+			int i = hash & mask;
+
+			while (keys[i] != null) {
+				i = (i + 1) & mask;
+			}
+
+			keys[i] = key;
+			values[i] = entry.getValue();
+			hashes[i] = hash;
+		}
+	}
+
+	/**
+	 * Get the mapped name for a class.
+	 *
+	 * @return the mapped name or null if there is no mapping.
+	 */
+	String get(String name) {
+		int hash = spread(name.hashCode()); // String caches its hash code
+		int mask = keys.length - 1;
+
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			String key = keys[i];
+			if (key == null) return null;
+			if (hashes[i] == hash && key.equals(name)) return values[i];
+		}
+	}
+
+	/**
+	 * Get the mapped name for the class name stored in s between start (inclusive) and end (exclusive).
+	 *
+	 * @return the mapped name or null if there is no mapping.
+	 */
+	String get(String s, int start, int end) {
+		if (size == 0) return null;
+
+		int hash = 0;
+
+		for (int i = start; i < end; i++) { // same as String.hashCode for the region
+			hash = 31 * hash + s.charAt(i);
+		}
+
+		hash = spread(hash);
+		int len = end - start;
+		int mask = keys.length - 1;
+
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			String key = keys[i];
+			if (key == null) return null;
+			if (hashes[i] == hash && key.length() == len && key.regionMatches(0, s, start, len)) return values[i];
+		}
+	}
+
+	void forEach(BiConsumer<String, String> consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) consumer.accept(keys[i], values[i]);
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private final String[] keys;
+	private final String[] values;
+	private final int[] hashes;
+	private final int size;
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+
+/**
+ * Persistent index of the analysis results for a classpath jar.
+ *
+ * <p>The index holds everything the analyze phase extracts from a classpath class: the class header and the access,
+ * name and descriptor of every member. It is keyed by the jar's absolute path and validated against its size and
+ * modification time, replaying it to a visitor yields the same calls as {@link ClassHeaderScanner}.
+ *
+ * <p>The file format is a string table followed by the class records, all strings are referenced by their table
+ * index so common names like java/lang/Object are only stored and loaded once.
+ */
+final class ClassPathIndex {
+	static Path getIndexFile(Path cacheDir, Path jar) {
+		String path = jar.toAbsolutePath().normalize().toString();
+
+		return cacheDir.resolve(String.format("%s-%08x.idx", jar.getFileName().toString(), path.hashCode()));
+	}
+
+	/**
+	 * Load the index for a jar.
+	 *
+	 * @return the index or null if there is no index or it doesn't match the jar
+	 */
+	static ClassPathIndex read(Path indexFile, Path jar, BasicFileAttributes attrs) throws IOException {
+		try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+			if (is.readInt() != MAGIC
+					|| is.readInt() != VERSION
+					|| !is.readUTF().equals(jar.toAbsolutePath().normalize().toString())
+					|| is.readLong() != attrs.size()
+					|| is.readLong() != attrs.lastModifiedTime().toMillis()) {
+				return null;
+			}
+
+			String[] strings = new String[is.readInt() + 1];
+
+			for (int i = 1; i < strings.length; i++) {
+				strings[i] = is.readUTF();
+			}
+
+			int classCount = is.readInt();
+			List<Entry> entries = new ArrayList<>(classCount);
+
+			for (int i = 0; i < classCount; i++) {
+				Entry entry = new Entry();
+				entry.entryName = strings[is.readInt()];
+				entry.name = strings[is.readInt()];
+				entry.classVersion = is.readInt();
+				entry.mrjVersion = is.readInt();
+				entry.access = is.readInt();
+				entry.signature = strings[is.readInt()];
+				entry.superName = strings[is.readInt()];
+				entry.interfaces = new String[is.readUnsignedShort()];
+
+				for (int j = 0; j < entry.interfaces.length; j++) {
+					entry.interfaces[j] = strings[is.readInt()];
+				}
+
+				entry.fieldCount = is.readUnsignedShort();
+				int memberCount = entry.fieldCount + is.readUnsignedShort();
+				entry.memberAccess = new int[memberCount];
+				entry.memberNames = new String[memberCount];
+				entry.memberDescs = new String[memberCount];
+
+				for (int j = 0; j < memberCount; j++) {
+					entry.memberAccess[j] = is.readInt();
+					entry.memberNames[j] = strings[is.readInt()];
+					entry.memberDescs[j] = strings[is.readInt()];
+				}
+
+				entries.add(entry);
+			}
+
+			return new ClassPathIndex(entries);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | ArrayIndexOutOfBoundsException e) {
+			throw new IOException("invalid class path index "+indexFile, e);
+		}
+	}
+
+	/**
+	 * Write the index for a jar.
+	 *
+	 * <p>The index is written to a temporary file first and then moved in place, so concurrent readers never observe
+	 * an incomplete index.
+	 *
+	 * @param entryNames zip entry names for the classes, in the same order
+	 * @param classes analyzed classes, members are stored in their original order
+	 */
+	static void write(Path indexFile, Path jar, BasicFileAttributes attrs, List<String> entryNames, List<ClassInstance> classes) throws IOException {
+		Map<String, Integer> stringIds = new HashMap<>();
+		List<String> strings = new ArrayList<>();
+
+		for (int i = 0; i < classes.size(); i++) {
+			ClassInstance cls = classes.get(i);
+			addString(entryNames.get(i), stringIds, strings);
+			addString(cls.getName(), stringIds, strings);
+			addString(cls.getSignature(), stringIds, strings);
+			addString(cls.getSuperName(), stringIds, strings);
+
+			for (String itf : cls.getInterfaceNames()) {
+				addString(itf, stringIds, strings);
+			}
+
+			for (MemberInstance member : cls.getMembers()) {
+				addString(member.getName(), stringIds, strings);
+				addString(member.getDesc(), stringIds, strings);
+			}
+		}
+
+		Files.createDirectories(indexFile.toAbsolutePath().getParent());
+		Path tmpFile = Files.createTempFile(indexFile.toAbsolutePath().getParent(), indexFile.getFileName().toString(), ".tmp");
+
+		try {
+			try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+				os.writeInt(MAGIC);
+				os.writeInt(VERSION);
+				os.writeUTF(jar.toAbsolutePath().normalize().toString());
+				os.writeLong(attrs.size());
+				os.writeLong(attrs.lastModifiedTime().toMillis());
+
+				os.writeInt(strings.size());
+
+				for (String s : strings) {
+					os.writeUTF(s);
+				}
+
+				os.writeInt(classes.size());
+
+				for (int i = 0; i < classes.size(); i++) {
+					ClassInstance cls = classes.get(i);
+					List<String> interfaces = cls.getInterfaceNames();
+					List<MemberInstance> members = new ArrayList<>(cls.getMembers());
+					members.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+					int fieldCount = 0;
+
+					for (MemberInstance member : members) {
+						if (member.isField()) fieldCount++;
+					}
+
+					os.writeInt(getStringId(entryNames.get(i), stringIds));
+					os.writeInt(getStringId(cls.getName(), stringIds));
+					os.writeInt(cls.getClassVersion());
+					os.writeInt(cls.getMrjVersion());
+					os.writeInt(cls.getAccess());
+					os.writeInt(getStringId(cls.getSignature(), stringIds));
+					os.writeInt(getStringId(cls.getSuperName(), stringIds));
+					os.writeShort(interfaces.size());
+
+					for (String itf : interfaces) {
+						os.writeInt(getStringId(itf, stringIds));
+					}
+
+					os.writeShort(fieldCount);
+					os.writeShort(members.size() - fieldCount);
+
+					// fields are visited before methods, matching the member index order
+
+					for (int pass = 0; pass < 2; pass++) {
+						for (MemberInstance member : members) {
+							if (member.isField() != (pass == 0)) continue;
+
+							os.writeInt(member.getAccess());
+							os.writeInt(getStringId(member.getName(), stringIds));
+							os.writeInt(getStringId(member.getDesc(), stringIds));
+						}
+					}
+				}
+			}
+
+			try {
+				Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmpFile);
+		}
+	}
+
+	private static void addString(String s, Map<String, Integer> stringIds, List<String> strings) {
+		if (s == null || stringIds.containsKey(s)) return;
+
+		strings.add(s);
+		stringIds.put(s, strings.size()); // 0 = null
+	}
+
+	private static int getStringId(String s, Map<String, Integer> stringIds) {
+		return s == null ? 0 : stringIds.get(s);
+	}
+
+	private ClassPathIndex(List<Entry> entries) {
+		this.entries = entries;
+	}
+
+	List<Entry> getEntries() {
+		return entries;
+	}
+
+	static final class Entry {
+		/**
+		 * Replay the indexed class to a visitor.
+		 */
+		void accept(ClassVisitor cv) {
+			cv.visit(classVersion, access, name, signature, superName, interfaces);
+
+			for (int i = 0; i < memberAccess.length; i++) {
+				if (i < fieldCount) {
+					FieldVisitor fv = cv.visitField(memberAccess[i], memberNames[i], memberDescs[i], null, null);
+					if (fv != null) fv.visitEnd();
+				} else {
+					MethodVisitor mv = cv.visitMethod(memberAccess[i], memberNames[i], memberDescs[i], null, null);
+					if (mv != null) mv.visitEnd();
+				}
+			}
+
+			cv.visitEnd();
+		}
+
+		String entryName;
+		String name;
+		int classVersion;
+		int mrjVersion;
+		int access;
+		String signature;
+		String superName;
+		String[] interfaces;
+		int fieldCount;
+		int[] memberAccess;
+		String[] memberNames;
+		String[] memberDescs;
+	}
+
+	private static final int MAGIC = 0x54524349; // TRCI
+	private static final int VERSION = 1;
+
+	private final List<Entry> entries;
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.util.Arrays;
+
+/**
+ * Set of visited classes for hierarchy traversals, indexed by {@link ClassInstance#id}.
+ *
+ * <p>Each class is marked by storing the current epoch in its slot, {@link #clear} just advances the epoch. This makes
+ * clearing constant time and avoids hashing or allocating per visit, which matters since propagation visits and
+ * resets the sets once per mapped member.
+ *
+ * <p>Instances are not thread safe and are meant to be reused by a single thread across many traversals.
+ */
+final class ClassVisitMarks {
+	/**
+	 * Mark a class as visited.
+	 *
+	 * @return true if the class wasn't visited since the last {@link #clear}.
+	 */
+	boolean add(ClassInstance cls) {
+		int id = cls.id;
+
+		if (id >= stamps.length) {
+			stamps = Arrays.copyOf(stamps, Math.max(id + 1, stamps.length * 2));
+		}
+
+		if (stamps[id] == epoch) return false;
+
+		stamps[id] = epoch;
+
+		return true;
+	}
+
+	void clear() {
+		if (++epoch == 0) { // wrapped around, old stamps could collide with new epochs
+			Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+	}
+
+	/**
+	 * Get the marks for a traversal nested within the one using this instance, e.g. for bridge targets.
+	 *
+	 * <p>The returned instance is owned by this one and gets reused by subsequent nested traversals, it has to be
+	 * cleared before use.
+	 */
+	ClassVisitMarks nested() {
+		ClassVisitMarks ret = nested;
+		if (ret == null) nested = ret = new ClassVisitMarks();
+
+		return ret;
+	}
+
+	private static final int initialCapacity = 64;
+
+	private int[] stamps = new int[initialCapacity];
+	private int epoch = 1;
+	private ClassVisitMarks nested;
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.fabricmc.tinyremapper.IMappingProvider.MappingAcceptor;
+import net.fabricmc.tinyremapper.IMappingProvider.Member;
+import net.fabricmc.tinyremapper.api.TrLogger;
+
+/**
+ * Immutable snapshot of the mappings supplied by one or more {@link IMappingProvider}s.
+ *
+ * <p>The providers are loaded and the class mappings are checked for duplicate targets once when compiling, the
+ * result can then be shared by any number of concurrently used {@link TinyRemapper} instances through
+ * {@link TinyRemapper.Builder#withMappings(CompiledMappings)}.
+ */
+public final class CompiledMappings {
+	public static CompiledMappings compile(IMappingProvider provider, boolean ignoreFieldDesc) {
+		return compile(Collections.singletonList(provider), ignoreFieldDesc);
+	}
+
+	public static CompiledMappings compile(Collection<IMappingProvider> providers, boolean ignoreFieldDesc) {
+		return compile(providers, ignoreFieldDesc, new ConsoleLogger());
+	}
+
+	/**
+	 * Load and check the mappings from the supplied providers.
+	 *
+	 * @param ignoreFieldDesc whether field mappings are keyed by name only, has to match the remappers using it.
+	 * @param logger logger for reporting mapping problems.
+	 * @throws RuntimeException if multiple classes map to the same target name.
+	 */
+	public static CompiledMappings compile(Collection<IMappingProvider> providers, boolean ignoreFieldDesc, TrLogger logger) {
+		return compile(Collections.emptyList(), providers, ignoreFieldDesc, logger);
+	}
+
+	static CompiledMappings compile(Collection<CompiledMappings> bases, Collection<IMappingProvider> providers, boolean ignoreFieldDesc, TrLogger logger) {
+		Map<String, String> classMap = new HashMap<>();
+		MappingTable methodMap = new MappingTable(false);
+		MappingTable methodArgMap = new MappingTable(false);
+		MappingTable methodVarMap = new MappingTable(false);
+		MappingTable fieldMap = new MappingTable(ignoreFieldDesc);
+		Map<String, String> pool = new HashMap<>(); // shared by all tables, only needed while building them
+
+		for (CompiledMappings base : bases) {
+			if (base.ignoreFieldDesc != ignoreFieldDesc) throw new IllegalArgumentException("compiled mappings with mismatched ignoreFieldDesc");
+
+			base.classMap.forEach(classMap::put);
+			methodMap.putAll(base.methodMap, pool);
+			methodArgMap.putAll(base.methodArgMap, pool);
+			methodVarMap.putAll(base.methodVarMap, pool);
+			fieldMap.putAll(base.fieldMap, pool);
+		}
+
+		MappingAcceptor acceptor = new MappingAcceptor() {
+			@Override
+			public void acceptClass(String srcName, String dstName) {
+				if (srcName == null) throw new NullPointerException("null src name");
+				if (dstName == null) throw new NullPointerException("null dst name");
+
+				classMap.put(srcName, dstName);
+			}
+
+			@Override
+			public void acceptMethod(Member method, String dstName) {
+				if (method == null) throw new NullPointerException("null src method");
+				if (method.owner == null) throw new NullPointerException("null src method owner");
+				if (method.name == null) throw new NullPointerException("null src method name");
+				if (method.desc == null) throw new NullPointerException("null src method desc");
+				if (dstName == null) throw new NullPointerException("null dst name");
+
+				methodMap.put(method.owner, method.name, method.desc, -1, dstName, pool);
+			}
+
+			@Override
+			public void acceptMethodArg(Member method, int lvIndex, String dstName) {
+				if (method == null) throw new NullPointerException("null src method");
+				if (method.owner == null) throw new NullPointerException("null src method owner");
+				if (method.name == null) throw new NullPointerException("null src method name");
+				if (method.desc == null) throw new NullPointerException("null src method desc");
+				if (dstName == null) throw new NullPointerException("null dst name");
+
+				methodArgMap.put(method.owner, method.name, method.desc, lvIndex, dstName, pool);
+			}
+
+			@Override
+			public void acceptMethodVar(Member method, int lvIndex, int startOpIdx, int asmIndex, String dstName) {
+				if (method == null) throw new NullPointerException("null src method");
+				if (method.owner == null) throw new NullPointerException("null src method owner");
+				if (method.name == null) throw new NullPointerException("null src method name");
+				if (method.desc == null) throw new NullPointerException("null src method desc");
+				if (dstName == null) throw new NullPointerException("null dst name");
+
+				methodVarMap.put(method.owner, method.name, method.desc, lvIndex, dstName, pool);
+			}
+
+			@Override
+			public void acceptField(Member field, String dstName) {
+				if (field == null) throw new NullPointerException("null src field");
+				if (field.owner == null) throw new NullPointerException("null src field owner");
+				if (field.name == null) throw new NullPointerException("null src field name");
+				if (field.desc == null && !ignoreFieldDesc) throw new NullPointerException("null src field desc");
+				if (dstName == null) throw new NullPointerException("null dst name");
+
+				fieldMap.put(field.owner, field.name, field.desc, -1, dstName, pool);
+			}
+		};
+
+		for (IMappingProvider provider : providers) {
+			provider.load(acceptor);
+		}
+
+		checkClassMappings(classMap, logger);
+
+		return new CompiledMappings(ignoreFieldDesc, new ClassMappingTable(classMap), methodMap, methodArgMap, methodVarMap, fieldMap);
+	}
+
+	private static void checkClassMappings(Map<String, String> classMap, TrLogger logger) {
+		// determine classes that map to the same target name, if there are any print duplicates and throw
+		Set<String> testSet = new HashSet<>(classMap.values());
+
+		if (testSet.size() != classMap.size()) { // src->target is not a 1:1 mapping
+			Set<String> duplicates = new HashSet<>();
+
+			for (String name : classMap.values()) {
+				if (!testSet.remove(name)) {
+					duplicates.add(name);
+				}
+			}
+
+			logger.warn("non-unique class target name mappings:");
+
+			for (String target : duplicates) {
+				StringBuilder sb = new StringBuilder();
+				sb.append("  [");
+				boolean first = true;
+
+				for (Map.Entry<String, String> e : classMap.entrySet()) {
+					if (e.getValue().equals(target)) {
+						if (first) {
+							first = false;
+						} else {
+							sb.append(", ");
+						}
+
+						sb.append(e.getKey());
+					}
+				}
+
+				sb.append(String.format("] -> %s", target));
+				logger.warn(sb.toString());
+			}
+
+			throw new RuntimeException("duplicate class target name mappings detected");
+		}
+	}
+
+	private CompiledMappings(boolean ignoreFieldDesc, ClassMappingTable classMap,
+			MappingTable methodMap, MappingTable methodArgMap, MappingTable methodVarMap, MappingTable fieldMap) {
+		this.ignoreFieldDesc = ignoreFieldDesc;
+		this.classMap = classMap;
+		this.methodMap = methodMap;
+		this.methodArgMap = methodArgMap;
+		this.methodVarMap = methodVarMap;
+		this.fieldMap = fieldMap;
+	}
+
+	public boolean isIgnoreFieldDesc() {
+		return ignoreFieldDesc;
+	}
+
+	public int getClassCount() {
+		return classMap.size();
+	}
+
+	public int getMethodCount() {
+		return methodMap.size();
+	}
+
+	public int getFieldCount() {
+		return fieldMap.size();
+	}
+
+	private final boolean ignoreFieldDesc;
+	// all tables are fully populated before construction and never modified afterwards
+	final ClassMappingTable classMap;
+	final MappingTable methodMap;
+	final MappingTable methodArgMap;
+	final MappingTable methodVarMap;
+	final MappingTable fieldMap;
+}
@@ -31,6 +31,10 @@ public final class ConsoleLogger implements TrLogger {
 		this(TrLogger.Level.INFO);
 	}
 
+	public TrLogger.Level getLevel() {
+		return level;
+	}
+
 	public void setLevel(TrLogger.Level level) {
 		this.level = level;
 	}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Raw deflate compression with pooled deflaters, which are expensive to set up for every invocation.
+ *
+ * <p>Instances are thread safe.
+ */
+final class DeflaterPool {
+	/**
+	 * @param level Compression level as accepted by {@link Deflater#setLevel}.
+	 */
+	DeflaterPool(int level) {
+		this.level = level;
+	}
+
+	/**
+	 * Deflate data without zlib header or checksum.
+	 *
+	 * @return the compressed data or null if it doesn't get smaller.
+	 */
+	byte[] deflate(byte[] data) {
+		Deflater deflater = deflaters.poll();
+		if (deflater == null) deflater = new Deflater(level, true);
+
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+
+			byte[] ret = new byte[data.length];
+			int len = 0;
+
+			while (!deflater.finished() && len < ret.length) {
+				len += deflater.deflate(ret, len, ret.length - len);
+			}
+
+			return deflater.finished() && len < data.length ? Arrays.copyOf(ret, len) : null;
+		} finally {
+			deflater.reset();
+			deflaters.offer(deflater);
+		}
+	}
+
+	/**
+	 * Release the pooled native resources, the instance stays usable.
+	 */
+	void close() {
+		for (Deflater deflater; (deflater = deflaters.poll()) != null; ) {
+			deflater.end();
+		}
+	}
+
+	private final int level;
+	private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+/**
+ * Fixed size cache for remapped descriptors and signatures, shared by all threads without locking.
+ *
+ * <p>Every key maps to a single slot, a new entry replaces whatever the slot held before. The entries are immutable,
+ * so concurrent readers see either the old or the new entry, never a partial one. A hit neither allocates nor writes.
+ */
+final class DescriptorCache {
+	/**
+	 * Create a new cache.
+	 *
+	 * @param size maximum number of entries, rounded up to a power of two
+	 */
+	DescriptorCache(int size) {
+		if (size <= 0) throw new IllegalArgumentException("invalid size: "+size);
+
+		slots = new Entry[size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1];
+	}
+
+	/**
+	 * Get the cached value for a key.
+	 *
+	 * @param flag additional key component, e.g. whether a signature is a type signature
+	 * @return the cached value or null if not cached
+	 */
+	String get(String key, boolean flag) {
+		Entry entry = slots[index(key)];
+		if (entry == null || entry.flag != flag || !entry.key.equals(key)) return null;
+
+		return entry.value;
+	}
+
+	void put(String key, boolean flag, String value) {
+		slots[index(key)] = new Entry(key, flag, value);
+	}
+
+	private int index(String key) {
+		int hash = key.hashCode(); // String caches its hash code
+
+		return (hash ^ (hash >>> 16)) & (slots.length - 1);
+	}
+
+	private static final class Entry {
+		Entry(String key, boolean flag, String value) {
+			this.key = key;
+			this.flag = flag;
+			this.value = value;
+		}
+
+		final String key;
+		final boolean flag;
+		final String value;
+	}
+
+	private final Entry[] slots;
+}
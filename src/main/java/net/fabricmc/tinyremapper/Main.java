@@ -36,6 +36,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 
 import net.fabricmc.tinyremapper.TinyRemapper.LinkedMethodPropagation;
@@ -63,6 +64,7 @@ public class Main {
 		boolean inferNameFromSameLvIndex = false;
 		NonClassCopyMode ncCopyMode = NonClassCopyMode.FIX_META_INF;
 		int threads = -1;
+		int resolveCacheSize = 0;
 
 		Map<String, TinyRemapper.CLIExtensionProvider> providerMap = new HashMap<>();
 		List<TinyRemapper.Extension> providedExtensions = new ArrayList<>();
@@ -151,6 +153,15 @@ public class Main {
 						System.exit(1);
 					}
 
+					break;
+				case "resolvecachesize":
+					resolveCacheSize = Integer.parseInt(arg.substring(valueSepPos + 1));
+
+					if (resolveCacheSize < 0) {
+						logger.error("Resolve cache size must be >= 0");
+						System.exit(1);
+					}
+
 					break;
 				case "mixin":
 					handleExtension(providerMap, "mixin", providedExtensions);
@@ -270,30 +281,52 @@ public class Main {
 				.renameInvalidLocals(renameInvalidLocals)
 				.invalidLvNamePattern(invalidLvNamePattern)
 				.inferNameFromSameLvIndex(inferNameFromSameLvIndex)
+				.resolveCacheSize(resolveCacheSize)
 				.threads(threads);
 
 		for (TinyRemapper.Extension ext : providedExtensions) {
 			ext.attach(builder);
 		}
 
-		TinyRemapper remapper = builder.build();
+		MetricsSummary metrics = null;
 
-		try (OutputConsumerPath outputConsumer = new OutputConsumerPath.Builder(output).build()) {
-			outputConsumer.addNonClassFiles(input, ncCopyMode, remapper);
+		if (logger.getLevel() == TrLogger.Level.DEBUG) {
+			metrics = new MetricsSummary();
+			builder.metrics(metrics);
+		}
 
-			remapper.readInputs(input);
-			remapper.readClassPath(classpath);
+		TinyRemapper remapper = builder.build();
 
-			remapper.apply(outputConsumer);
+		try {
+			if (OutputConsumerPath.isJar(output)) {
+				try (OutputConsumerJar outputConsumer = new OutputConsumerJar.Builder(output).build()) {
+					outputConsumer.addNonClassFiles(input, ncCopyMode, remapper);
+					remap(remapper, input, classpath, outputConsumer);
+				}
+			} else {
+				try (OutputConsumerPath outputConsumer = new OutputConsumerPath.Builder(output).build()) {
+					outputConsumer.addNonClassFiles(input, ncCopyMode, remapper);
+					remap(remapper, input, classpath, outputConsumer);
+				}
+			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		} finally {
 			remapper.finish();
 		}
 
+		if (metrics != null) metrics.log(logger);
+
 		logger.info("Finished after %.2f ms.", (System.nanoTime() - startTime) / 1e6);
 	}
 
+	private static void remap(TinyRemapper remapper, Path input, Path[] classpath, BiConsumer<String, byte[]> outputConsumer) {
+		remapper.readInputs(input);
+		remapper.readClassPath(classpath);
+
+		remapper.apply(outputConsumer);
+	}
+
 	private static void handleExtension(Map<String, TinyRemapper.CLIExtensionProvider> providerMap, String extName, List<TinyRemapper.Extension> providedExtensions) {
 		TinyRemapper.CLIExtensionProvider provider = providerMap.get(extName);
 
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Hash table for member and local variable mappings keyed by (owner, name, desc, lv index).
+ *
+ * <p>The key components are hashed and compared individually, so neither insertion nor lookup concatenates them into
+ * a temporary key string. Owners and descriptors may be deduplicated on insertion through a caller supplied pool as
+ * they repeat heavily across a mapping set. The pool is only needed while building, so the table doesn't retain it and
+ * one pool can serve all tables compiled together.
+ *
+ * <p>The table is populated from a single thread, afterwards it may be read concurrently.
+ */
+final class MappingTable {
+	/**
+	 * Create a new table.
+	 *
+	 * @param ignoreDesc whether the desc isn't part of the key, as for fields with ignoreFieldDesc
+	 */
+	MappingTable(boolean ignoreDesc) {
+		this.ignoreDesc = ignoreDesc;
+	}
+
+	/**
+	 * Add or replace a mapping.
+	 *
+	 * @param lvIndex local variable index or -1 for member mappings
+	 * @return the previous dst name or null if there was none.
+	 */
+	String put(String owner, String name, String desc, int lvIndex, String dstName) {
+		return put(owner, name, desc, lvIndex, dstName, null);
+	}
+
+	/**
+	 * Add or replace a mapping, deduplicating the owner and desc of new entries through pool.
+	 *
+	 * @param lvIndex local variable index or -1 for member mappings
+	 * @param pool intern pool mapping strings to their canonical instance, null to store the strings as supplied
+	 * @return the previous dst name or null if there was none.
+	 */
+	String put(String owner, String name, String desc, int lvIndex, String dstName, /* @Nullable */ Map<String, String> pool) {
+		if (ignoreDesc) desc = null;
+
+		int hash = hash(owner, name, desc, lvIndex);
+		int mask = slots.length - 1;
+		int i = hash & mask;
+
+		for (Entry entry; (entry = slots[i]) != null; i = (i + 1) & mask) {
+			if (entry.hash == hash && entry.matches(owner, name, desc, lvIndex)) {
+				String prev = entry.dstName;
+				entry.dstName = dstName;
+
+				return prev;
+			}
+		}
+
+		Entry entry = new Entry(intern(owner, pool), name, desc != null ? intern(desc, pool) : null, lvIndex, dstName, hash);
+
+		if (size == entries.length) entries = Arrays.copyOf(entries, entries.length * 2);
+		entries[size++] = entry;
+
+		if (size * 2 > slots.length) { // keep the load factor at or below 0.5
+			rehash(slots.length * 2);
+		} else {
+			slots[i] = entry;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Get the dst name for a mapping.
+	 *
+	 * @param lvIndex local variable index or -1 for member mappings
+	 * @return the dst name or null if there is no mapping.
+	 */
+	String get(String owner, String name, String desc, int lvIndex) {
+		if (ignoreDesc) desc = null;
+
+		int hash = hash(owner, name, desc, lvIndex);
+		Entry[] slots = this.slots;
+		int mask = slots.length - 1;
+
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			Entry entry = slots[i];
+			if (entry == null) return null;
+			if (entry.hash == hash && entry.matches(owner, name, desc, lvIndex)) return entry.dstName;
+		}
+	}
+
+	/**
+	 * Add or replace all mappings from another table.
+	 *
+	 * @param pool intern pool as for {@link #put(String, String, String, int, String, Map)}
+	 */
+	void putAll(MappingTable table, /* @Nullable */ Map<String, String> pool) {
+		for (int i = 0; i < table.size; i++) {
+			Entry entry = table.entries[i];
+			put(entry.owner, entry.name, entry.desc, entry.lvIndex, entry.dstName, pool);
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get a live view of all entries in insertion order.
+	 */
+	List<Entry> entries() {
+		return entryList;
+	}
+
+	private static int hash(String owner, String name, String desc, int lvIndex) {
+		int ret = owner.hashCode();
+		ret = 31 * ret + name.hashCode();
+		ret = 31 * ret + (desc != null ? desc.hashCode() : 0);
+		ret = 31 * ret + lvIndex;
+
+		return ret ^ (ret >>> 16);
+	}
+
+	private static String intern(String s, /* @Nullable */ Map<String, String> pool) {
+		if (pool == null) return s;
+
+		String ret = pool.putIfAbsent(s, s);
+
+		return ret != null ? ret : s;
+	}
+
+	private void rehash(int capacity) {
+		Entry[] newSlots = new Entry[capacity];
+		int mask = capacity - 1;
+
+		for (int j = 0; j < size; j++) {
+			Entry entry = entries[j];
+			int i = entry.hash & mask;
+
+			while (newSlots[i] != null) {
+				i = (i + 1) & mask;
+			}
+
+			newSlots[i] = entry;
+		}
+
+		slots = newSlots;
+	}
+
+	static final class Entry {
+		Entry(String owner, String name, String desc, int lvIndex, String dstName, int hash) {
+			this.owner = owner;
+			this.name = name;
+			this.desc = desc;
+			this.lvIndex = lvIndex;
+			this.dstName = dstName;
+			this.hash = hash;
+		}
+
+		boolean matches(String owner, String name, String desc, int lvIndex) {
+			return this.lvIndex == lvIndex
+					&& this.name.equals(name)
+					&& this.owner.equals(owner)
+					&& Objects.equals(this.desc, desc);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s/%s%s%s -> %s", owner, name, desc != null ? desc : "", lvIndex >= 0 ? lvIndex : "", dstName);
+		}
+
+		final String owner;
+		final String name;
+		final String desc; // null if the table ignores descs
+		final int lvIndex;
+		String dstName;
+		private final int hash;
+	}
+
+	private final class EntryList extends AbstractList<Entry> implements RandomAccess {
+		@Override
+		public Entry get(int index) {
+			if (index < 0 || index >= size) throw new IndexOutOfBoundsException(Integer.toString(index));
+
+			return entries[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	private static final int initialCapacity = 64;
+
+	private final boolean ignoreDesc;
+	private Entry[] slots = new Entry[initialCapacity * 2];
+	private Entry[] entries = new Entry[initialCapacity];
+	private int size;
+	private final List<Entry> entryList = new EntryList();
+}
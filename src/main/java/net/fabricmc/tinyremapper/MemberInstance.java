@@ -113,6 +113,16 @@ public final class MemberInstance implements TrField, TrMethod {
 		newName = name;
 	}
 
+	/**
+	 * Discard the propagation results to allow propagating again.
+	 */
+	void resetNewName() {
+		newName = null;
+		newBridgedName = null;
+		newNameOriginatingCls = null;
+		bridgeTarget = null;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%s/%s%s", cls.getName(), name, desc);
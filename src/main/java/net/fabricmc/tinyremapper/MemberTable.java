@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import net.fabricmc.tinyremapper.api.TrMember.MemberType;
+
+/**
+ * Open addressing hash table of members keyed by type, name and desc.
+ *
+ * <p>Lookups take the name and desc directly, so probing doesn't need to build an id string. Members are hashed by
+ * name and desc, so heavily overloaded names as common in obfuscated code don't lengthen the probe runs of exact
+ * lookups. A separate index hashed by name only keeps all members sharing a name within one probe run, which allows
+ * enumerating them without a full scan, see {@link #nextNamed}. Fields match by name alone if the field desc is being
+ * ignored.
+ *
+ * <p>The table is not synchronized, with the exception of {@link #putIfAbsent}. It supports concurrent readers next
+ * to a single writer with the caveat that readers may miss recently added entries. Members are safely published
+ * through their final fields and readers always see a consistent slot array.
+ */
+final class MemberTable {
+	MemberTable(boolean ignoreFieldDesc) {
+		this.ignoreFieldDesc = ignoreFieldDesc;
+	}
+
+	MemberInstance get(MemberType type, String name, String desc) {
+		MemberInstance[] slots = this.slots;
+		int mask = slots.length - 1;
+
+		for (int i = hash(type, name, desc) & mask; ; i = (i + 1) & mask) {
+			MemberInstance member = slots[i];
+			if (member == null) return null;
+
+			if (member.type == type
+					&& member.name.equals(name)
+					&& descMatches(type, member.desc, desc)) {
+				return member;
+			}
+		}
+	}
+
+	/**
+	 * Get a member by its id as created by {@link MemberInstance#getId}.
+	 */
+	MemberInstance get(MemberType type, String id) {
+		int nameEnd;
+
+		if (type == MemberType.METHOD) {
+			nameEnd = id.indexOf('(');
+		} else if (ignoreFieldDesc) {
+			nameEnd = id.length();
+		} else {
+			nameEnd = id.indexOf(";;");
+		}
+
+		if (nameEnd < 0) throw new IllegalArgumentException(String.format("invalid %s id: %s", type.name(), id));
+
+		int descStart = type == MemberType.METHOD ? nameEnd : nameEnd + 2;
+		int descLength = id.length() - descStart;
+		int nameHash = 0;
+		int descHash = 0;
+
+		for (int i = 0; i < nameEnd; i++) {
+			nameHash = 31 * nameHash + id.charAt(i);
+		}
+
+		if (!ignoresDesc(type)) {
+			for (int i = descStart; i < id.length(); i++) {
+				descHash = 31 * descHash + id.charAt(i);
+			}
+		}
+
+		MemberInstance[] slots = this.slots;
+		int mask = slots.length - 1;
+
+		for (int i = hash(nameHash, descHash) & mask; ; i = (i + 1) & mask) {
+			MemberInstance member = slots[i];
+			if (member == null) return null;
+
+			if (member.type == type
+					&& member.name.length() == nameEnd
+					&& id.startsWith(member.name)
+					&& (type == MemberType.FIELD && ignoreFieldDesc
+					|| member.desc != null && member.desc.length() == descLength && id.startsWith(member.desc, descStart))) {
+				return member;
+			}
+		}
+	}
+
+	/**
+	 * Find the next slot of the name index holding a member with the supplied name.
+	 *
+	 * @param name Member name.
+	 * @param slot Slot returned by the previous invocation, -1 for the first invocation.
+	 * @return Slot index for {@link #getSlot} or -1 if there are no further members with the name.
+	 */
+	int nextNamed(String name, int slot) {
+		MemberInstance[] slots = this.namedSlots;
+		int mask = slots.length - 1;
+
+		for (int i = slot < 0 ? spread(name.hashCode()) & mask : (slot + 1) & mask; ; i = (i + 1) & mask) {
+			MemberInstance member = slots[i];
+			if (member == null) return -1;
+			if (member.name.equals(name)) return i;
+		}
+	}
+
+	MemberInstance getSlot(int slot) {
+		return namedSlots[slot];
+	}
+
+	/**
+	 * Add or replace a member.
+	 *
+	 * @return the replaced member or null if there was none.
+	 */
+	MemberInstance put(MemberInstance member) {
+		MemberInstance[] slots = this.slots;
+		int mask = slots.length - 1;
+		int i = hash(member.type, member.name, member.desc) & mask;
+
+		for (MemberInstance prev; (prev = slots[i]) != null; i = (i + 1) & mask) {
+			if (prev.type == member.type
+					&& prev.name.equals(member.name)
+					&& descMatches(member.type, prev.desc, member.desc)) {
+				slots[i] = member;
+
+				MemberInstance[] namedSlots = this.namedSlots;
+				int j = spread(member.name.hashCode()) & mask;
+
+				while (namedSlots[j] != prev) {
+					j = (j + 1) & mask;
+				}
+
+				namedSlots[j] = member;
+
+				for (int k = 0; k < size; k++) {
+					if (entries[k] == prev) {
+						entries[k] = member;
+						break;
+					}
+				}
+
+				return prev;
+			}
+		}
+
+		if (size == entries.length) entries = Arrays.copyOf(entries, entries.length * 2);
+		entries[size++] = member;
+
+		if (size * 2 > slots.length) { // keep the load factor at or below 0.5
+			rehash(slots.length * 2);
+		} else {
+			slots[i] = member;
+			putNamed(namedSlots, member);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Add a member if there's no member with the same key yet, safe to be invoked concurrently.
+	 *
+	 * @return the existing member or null if the member was added.
+	 */
+	synchronized MemberInstance putIfAbsent(MemberInstance member) {
+		MemberInstance prev = get(member.type, member.name, member.desc);
+		if (prev != null) return prev;
+
+		put(member);
+
+		return null;
+	}
+
+	/**
+	 * Remove all members, not safe to be invoked concurrently with any other method.
+	 */
+	void clear() {
+		slots = new MemberInstance[initialCapacity * 2];
+		namedSlots = new MemberInstance[initialCapacity * 2];
+		entries = new MemberInstance[initialCapacity];
+		size = 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Get a live view of all members in insertion order.
+	 */
+	Collection<MemberInstance> values() {
+		return values;
+	}
+
+	private boolean descMatches(MemberType type, String descA, String descB) {
+		return ignoresDesc(type) || Objects.equals(descA, descB);
+	}
+
+	private boolean ignoresDesc(MemberType type) {
+		return type == MemberType.FIELD && ignoreFieldDesc;
+	}
+
+	private int hash(MemberType type, String name, String desc) {
+		return hash(name.hashCode(), ignoresDesc(type) || desc == null ? 0 : desc.hashCode());
+	}
+
+	private static int hash(int nameHash, int descHash) {
+		return spread(31 * nameHash + descHash);
+	}
+
+	/**
+	 * Mix the high bits into the low bits used for indexing the power of two sized tables.
+	 */
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private static void putNamed(MemberInstance[] namedSlots, MemberInstance member) {
+		int mask = namedSlots.length - 1;
+		int i = spread(member.name.hashCode()) & mask;
+
+		while (namedSlots[i] != null) {
+			i = (i + 1) & mask;
+		}
+
+		namedSlots[i] = member;
+	}
+
+	private void rehash(int capacity) {
+		MemberInstance[] newSlots = new MemberInstance[capacity];
+		MemberInstance[] newNamedSlots = new MemberInstance[capacity];
+		int mask = capacity - 1;
+
+		for (int j = 0; j < size; j++) {
+			MemberInstance member = entries[j];
+			int i = hash(member.type, member.name, member.desc) & mask;
+
+			while (newSlots[i] != null) {
+				i = (i + 1) & mask;
+			}
+
+			newSlots[i] = member;
+			putNamed(newNamedSlots, member);
+		}
+
+		// volatile writes, publish the fully populated arrays
+		namedSlots = newNamedSlots;
+		slots = newSlots;
+	}
+
+	private final class Values extends AbstractCollection<MemberInstance> {
+		@Override
+		public Iterator<MemberInstance> iterator() {
+			return new Iterator<MemberInstance>() {
+				@Override
+				public boolean hasNext() {
+					return pos < size;
+				}
+
+				@Override
+				public MemberInstance next() {
+					if (pos >= size) throw new NoSuchElementException();
+
+					return entries[pos++];
+				}
+
+				private int pos;
+			};
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	private static final int initialCapacity = 8;
+
+	private final boolean ignoreFieldDesc;
+	private volatile MemberInstance[] slots = new MemberInstance[initialCapacity * 2]; // hashed by name and desc
+	private volatile MemberInstance[] namedSlots = new MemberInstance[initialCapacity * 2]; // hashed by name only, for nextNamed
+	private MemberInstance[] entries = new MemberInstance[initialCapacity];
+	private int size;
+	private final Values values = new Values();
+}
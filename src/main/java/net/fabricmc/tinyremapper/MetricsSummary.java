@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.fabricmc.tinyremapper.api.TrClass;
+import net.fabricmc.tinyremapper.api.TrEnvironment;
+import net.fabricmc.tinyremapper.api.TrLogger;
+
+/**
+ * Metrics listener aggregating everything into a table for the log, as printed by the CLI at debug level.
+ */
+final class MetricsSummary implements RemapperMetrics {
+	@Override
+	public synchronized void pathRead(Path path, boolean isInput, int classCount, long nanos) {
+		reads.add(new Row((isInput ? "read input " : "read classpath ")+path, classCount, nanos));
+	}
+
+	@Override
+	public synchronized void phaseCompleted(Phase phase, TrEnvironment env, int count, long nanos) {
+		phases.computeIfAbsent(phase, ignore -> new Row(phase.name().toLowerCase(Locale.ENGLISH), 0, 0)).add(count, nanos);
+	}
+
+	@Override
+	public synchronized void stateProcessorCompleted(TinyRemapper.StateProcessor processor, TrEnvironment env, long nanos) {
+		String name = processor.getClass().getName();
+		stateProcessors.computeIfAbsent(name, ignore -> new Row("state processor "+name, 0, 0)).add(1, nanos);
+	}
+
+	@Override
+	public void classApplied(TrClass cls, int size, long nanos) {
+		appliedClasses.increment();
+		appliedBytes.add(size);
+		applyNanos.add(nanos);
+	}
+
+	@Override
+	public void resolveCacheStats(long hits, long misses, long evictions) {
+		resolveHits.add(hits);
+		resolveMisses.add(misses);
+		resolveEvictions.add(evictions);
+	}
+
+	public synchronized void log(TrLogger logger) {
+		List<Row> rows = new ArrayList<>(reads);
+		rows.sort(Comparator.comparingLong((Row row) -> row.nanos).reversed());
+		rows.addAll(phases.values());
+		rows.addAll(stateProcessors.values());
+
+		logger.debug(String.format("%-60s %10s %12s", "phase", "count", "time [ms]"));
+
+		for (Row row : rows) {
+			logger.debug(String.format("%-60s %10d %12.2f", row.name, row.count, row.nanos / 1e6));
+		}
+
+		long classes = appliedClasses.sum();
+
+		if (classes > 0) {
+			logger.debug(String.format("applied %d classes, %d bytes, %.2f us per class (mean per-class wall-clock time, overlaps across threads)",
+					classes, appliedBytes.sum(), applyNanos.sum() / 1e3 / classes));
+		}
+
+		long hits = resolveHits.sum();
+		long total = hits + resolveMisses.sum();
+
+		if (total > 0) {
+			logger.debug(String.format("resolve cache: %d hits, %d misses, %.1f%% hit rate, %d evictions",
+					hits, total - hits, 100. * hits / total, resolveEvictions.sum()));
+		}
+	}
+
+	private static final class Row {
+		Row(String name, long count, long nanos) {
+			this.name = name;
+			this.count = count;
+			this.nanos = nanos;
+		}
+
+		void add(long count, long nanos) {
+			this.count += count;
+			this.nanos += nanos;
+		}
+
+		final String name;
+		long count;
+		long nanos;
+	}
+
+	private final List<Row> reads = new ArrayList<>();
+	private final Map<Phase, Row> phases = new EnumMap<>(Phase.class);
+	private final Map<String, Row> stateProcessors = new LinkedHashMap<>();
+	private final LongAdder appliedClasses = new LongAdder();
+	private final LongAdder appliedBytes = new LongAdder();
+	private final LongAdder applyNanos = new LongAdder();
+	private final LongAdder resolveHits = new LongAdder();
+	private final LongAdder resolveMisses = new LongAdder();
+	private final LongAdder resolveEvictions = new LongAdder();
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Transformed class data kept for repeated apply invocations, spilling to a temporary file beyond a memory budget.
+ *
+ * <p>Data is held on the heap until the budget is exhausted, further data gets appended to the spill file and is read
+ * back on demand. The spill file is append-only, replacing spilled data leaves the old copy behind until the buffer
+ * is closed.
+ *
+ * <p>{@link #put} may be invoked concurrently, {@link #forEach} and {@link #close} require exclusive access.
+ */
+final class OutputBuffer {
+	/**
+	 * @param memoryLimit Maximum number of data bytes to keep on the heap.
+	 */
+	OutputBuffer(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+	}
+
+	void put(ClassInstance cls, byte[] data) {
+		Object value;
+
+		if (memoryUsed.addAndGet(data.length) <= memoryLimit) {
+			value = data;
+		} else {
+			memoryUsed.addAndGet(-data.length);
+			value = spill(data);
+		}
+
+		Object prev = entries.put(cls, value);
+		if (prev instanceof byte[]) memoryUsed.addAndGet(-((byte[]) prev).length);
+	}
+
+	/**
+	 * Pass all entries to the supplied consumer, reading spilled data back in the process.
+	 */
+	void forEach(BiConsumer<ClassInstance, byte[]> consumer) {
+		for (Map.Entry<ClassInstance, Object> entry : entries.entrySet()) {
+			Object value = entry.getValue();
+
+			consumer.accept(entry.getKey(), value instanceof byte[] ? (byte[]) value : read((SpilledData) value));
+		}
+	}
+
+	/**
+	 * Discard all data and delete the spill file.
+	 */
+	void close() {
+		entries.clear();
+		memoryUsed.set(0);
+		spillSize.set(0);
+
+		if (spillChannel != null) {
+			try {
+				spillChannel.close();
+				Files.deleteIfExists(spillFile);
+			} catch (IOException e) {
+				throw new UncheckedIOException("error deleting output spill file "+spillFile, e);
+			} finally {
+				spillChannel = null;
+			}
+		}
+	}
+
+	private SpilledData spill(byte[] data) {
+		FileChannel channel = getSpillChannel();
+		long position = spillSize.getAndAdd(data.length); // reserve the range, positional writes don't interfere
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, position + buffer.position());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("error writing output spill file "+spillFile, e);
+		}
+
+		return new SpilledData(position, data.length);
+	}
+
+	private byte[] read(SpilledData data) {
+		byte[] ret = new byte[data.length];
+		ByteBuffer buffer = ByteBuffer.wrap(ret);
+
+		try {
+			while (buffer.hasRemaining()) {
+				if (spillChannel.read(buffer, data.position + buffer.position()) < 0) throw new EOFException();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("error reading output spill file "+spillFile, e);
+		}
+
+		return ret;
+	}
+
+	private FileChannel getSpillChannel() {
+		FileChannel ret = spillChannel;
+		if (ret != null) return ret;
+
+		synchronized (this) {
+			if (spillChannel == null) {
+				try {
+					spillFile = Files.createTempFile("tiny-remapper-output", ".bin");
+					spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+				} catch (IOException e) {
+					throw new UncheckedIOException("error creating output spill file", e);
+				}
+			}
+
+			return spillChannel;
+		}
+	}
+
+	private static final class SpilledData {
+		SpilledData(long position, int length) {
+			this.position = position;
+			this.length = length;
+		}
+
+		final long position;
+		final int length;
+	}
+
+	private final long memoryLimit;
+	private final Map<ClassInstance, Object> entries = new ConcurrentHashMap<>(); // value is byte[] or SpilledData
+	private final AtomicLong memoryUsed = new AtomicLong();
+	private final AtomicLong spillSize = new AtomicLong();
+	private volatile FileChannel spillChannel;
+	private Path spillFile;
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.fabricmc.tinyremapper.OutputConsumerPath.ResourceRemapper;
+
+/**
+ * Output consumer writing a jar file without going through a zip file system.
+ *
+ * <p>Entries get compressed by the thread supplying them, which for {@link TinyRemapper#apply} are the remapper's
+ * worker threads, and are then written right away through a single channel in the order they arrive. Only the central
+ * directory is kept until {@link #close}, which writes it in a deterministic order: the manifest first, followed by all
+ * other entries sorted by name. Parent directory entries are generated as needed. An existing destination file gets
+ * replaced.
+ *
+ * <p>Replacing an entry leaves the earlier data unreferenced in the file. Readers going by the entries' order rather
+ * than the central directory, like JarInputStream, see all entries in the order they were written, so the manifest
+ * has to be added before anything else for them to find it.
+ *
+ * <p>With {@link Builder#sortEntries} the entries are instead written in the central directory's order, which makes
+ * the output byte for byte reproducible regardless of the order the entries arrive in. This keeps all compressed
+ * entries in memory until {@link #close}, costing as much memory as the whole compressed output.
+ *
+ * <p>{@link #accept}, {@link #addEntry} and {@link #addNonClassFiles} may be invoked concurrently, but not concurrently
+ * with {@link #close}.
+ */
+public final class OutputConsumerJar implements BiConsumer<String, byte[]>, Closeable {
+	public static class Builder {
+		public Builder(Path destination) {
+			this.destination = destination;
+		}
+
+		/**
+		 * Whether to deflate the entries, enabled by default.
+		 *
+		 * <p>Storing the entries uncompressed is considerably faster, which suits intermediate artifacts.
+		 */
+		public Builder compress(boolean value) {
+			this.compress = value;
+			return this;
+		}
+
+		/**
+		 * Whether to hold back all entries until closing and write them sorted by name, disabled by default.
+		 *
+		 * <p>The output then doesn't depend on the order the entries arrive in, at the cost of keeping the whole
+		 * compressed output in memory.
+		 */
+		public Builder sortEntries(boolean value) {
+			this.sortEntries = value;
+			return this;
+		}
+
+		public Builder filter(Predicate<String> classNameFilter) {
+			this.classNameFilter = classNameFilter;
+			return this;
+		}
+
+		public OutputConsumerJar build() throws IOException {
+			Path parent = destination.toAbsolutePath().getParent();
+			if (parent != null) Files.createDirectories(parent);
+
+			return new OutputConsumerJar(ZipWriter.create(destination, nameOrder), compress, sortEntries, classNameFilter);
+		}
+
+		private final Path destination;
+		private boolean compress = true;
+		private boolean sortEntries;
+		private Predicate<String> classNameFilter;
+	}
+
+	private OutputConsumerJar(ZipWriter writer, boolean compress, boolean sortEntries, Predicate<String> classNameFilter) {
+		this.writer = writer;
+		this.compress = compress;
+		this.entries = sortEntries ? new ConcurrentHashMap<>() : null;
+		this.classNameFilter = classNameFilter;
+	}
+
+	@Override
+	public void accept(String clsName, byte[] data) {
+		if (classNameFilter != null && !classNameFilter.test(clsName)) return;
+
+		addEntry(clsName+classSuffix, data);
+	}
+
+	/**
+	 * Add or replace a file.
+	 *
+	 * @param name '/' separated path within the jar, without leading '/'.
+	 * @param data File content, mustn't be modified afterwards as it may be retained.
+	 */
+	public void addEntry(String name, byte[] data) {
+		if (name.isEmpty() || name.startsWith("/") || name.endsWith("/")) throw new IllegalArgumentException("invalid entry name: "+name);
+
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+		byte[] compressed = compress ? deflaters.deflate(data) : null;
+
+		if (compressed != null) {
+			put(new Entry(name, ZipReader.METHOD_DEFLATED, (int) crc.getValue(), data.length, compressed));
+		} else {
+			put(new Entry(name, ZipReader.METHOD_STORED, (int) crc.getValue(), data.length, data));
+		}
+	}
+
+	public void addNonClassFiles(Path srcFile) throws IOException {
+		addNonClassFiles(srcFile, NonClassCopyMode.UNCHANGED, null);
+	}
+
+	public void addNonClassFiles(Path srcFile, NonClassCopyMode copyMode, TinyRemapper remapper) throws IOException {
+		addNonClassFiles(srcFile, remapper, copyMode.remappers);
+	}
+
+	/**
+	 * Copy all non-class files from a directory or jar.
+	 *
+	 * <p>Entries from jars are copied without recompressing them where possible. The resource remappers write to a
+	 * temporary directory, whose content is then added in place of the original file.
+	 */
+	public void addNonClassFiles(Path srcFile, TinyRemapper remapper, List<ResourceRemapper> resourceRemappers) throws IOException {
+		if (Files.isDirectory(srcFile)) {
+			Files.walkFileTree(srcFile, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					if (!file.getFileName().toString().endsWith(classSuffix)) {
+						Path relativePath = srcFile.relativize(file);
+
+						if (!transform(relativePath, () -> Files.newInputStream(file), remapper, resourceRemappers)) {
+							addEntry(toEntryName(relativePath), Files.readAllBytes(file));
+						}
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} else if (Files.exists(srcFile)) {
+			if (srcFile.getFileName().toString().endsWith(classSuffix)) return;
+
+			Inflater inflater = new Inflater(true);
+
+			try (ZipReader reader = ZipReader.open(srcFile)) {
+				for (ZipReader.Entry entry : reader.getEntries()) {
+					if (entry.isDirectory() || entry.name.endsWith(classSuffix)) continue;
+
+					Path relativePath = null;
+
+					if (!resourceRemappers.isEmpty()) {
+						try {
+							relativePath = srcFile.getFileSystem().getPath(entry.name);
+						} catch (InvalidPathException e) {
+							// not representable as a path, resource remappers can't apply
+						}
+					}
+
+					if (relativePath != null && transform(relativePath, () -> reader.open(entry, inflater), remapper, resourceRemappers)) {
+						continue;
+					}
+
+					if (entry.size <= Integer.MAX_VALUE
+							&& (entry.method == ZipReader.METHOD_DEFLATED && compress || entry.method == ZipReader.METHOD_STORED && !compress)) {
+						put(new Entry(entry.name, entry.method, entry.crc, (int) entry.size, reader.readRaw(entry)));
+					} else {
+						addEntry(entry.name, reader.read(entry, inflater));
+					}
+				}
+			} finally {
+				inflater.end();
+			}
+		} else {
+			throw new FileNotFoundException("file "+srcFile+" doesn't exist");
+		}
+	}
+
+	/**
+	 * Write any held back entries and the central directory, then close the destination file.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (writer) {
+			if (closed) return;
+
+			closed = true;
+
+			try {
+				if (entries != null) {
+					List<Entry> sorted = new ArrayList<>(entries.values());
+					sorted.sort(entryOrder);
+
+					for (Entry entry : sorted) {
+						write(entry);
+					}
+				}
+			} finally {
+				writer.close();
+				if (entries != null) entries.clear();
+
+				deflaters.close();
+			}
+		}
+	}
+
+	private void put(Entry entry) {
+		if (closed) throw new IllegalStateException("consumer already closed");
+
+		if (entries != null) {
+			entries.put(entry.name, entry);
+			return;
+		}
+
+		try {
+			synchronized (writer) {
+				if (closed) throw new IllegalStateException("consumer already closed");
+
+				write(entry);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("error writing "+entry.name, e);
+		}
+	}
+
+	/**
+	 * Write an entry preceded by its parent directory entries not written yet, requires holding the writer's lock.
+	 */
+	private void write(Entry entry) throws IOException {
+		for (int pos = entry.name.indexOf('/'); pos >= 0; pos = entry.name.indexOf('/', pos + 1)) {
+			String dir = entry.name.substring(0, pos + 1);
+			if (dirs.add(dir)) writer.write(dir, ZipReader.METHOD_STORED, 0, 0, new byte[0]);
+		}
+
+		writer.write(entry.name, entry.method, entry.crc, entry.size, entry.data);
+	}
+
+	private boolean transform(Path relativePath, InputSupplier input, TinyRemapper remapper, List<ResourceRemapper> resourceRemappers) throws IOException {
+		for (ResourceRemapper resourceRemapper : resourceRemappers) {
+			if (!resourceRemapper.canTransform(remapper, relativePath)) continue;
+
+			Path tmpDir = Files.createTempDirectory("tiny-remapper-");
+
+			try {
+				try (InputStream is = input.get()) {
+					resourceRemapper.transform(tmpDir, relativePath, is, remapper);
+				}
+
+				Files.walkFileTree(tmpDir, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+						addEntry(toEntryName(tmpDir.relativize(file)), Files.readAllBytes(file));
+
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			} finally {
+				deleteRecursively(tmpDir);
+			}
+
+			return true;
+		}
+
+		return false;
+	}
+
+	private static void deleteRecursively(Path root) throws IOException {
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+				if (exc != null) throw exc;
+
+				Files.delete(dir);
+
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private static String toEntryName(Path relativePath) {
+		String separator = relativePath.getFileSystem().getSeparator();
+		String ret = relativePath.toString();
+
+		return separator.equals("/") ? ret : ret.replace(separator, "/");
+	}
+
+	private interface InputSupplier {
+		InputStream get() throws IOException;
+	}
+
+	private static final class Entry {
+		Entry(String name, int method, int crc, int size, byte[] data) {
+			this.name = name;
+			this.method = method;
+			this.crc = crc;
+			this.size = size;
+			this.data = data;
+		}
+
+		final String name;
+		final int method;
+		final int crc;
+		final int size;
+		final byte[] data; // as stored in the archive
+	}
+
+	private static final String classSuffix = ".class";
+	private static final String manifestDir = "META-INF/";
+	private static final String manifestName = "META-INF/MANIFEST.MF";
+	private static final Comparator<String> nameOrder = Comparator.<String>comparingInt(name -> {
+		// manifest first, as expected by JarInputStream
+		if (name.equals(manifestDir)) return 0;
+		if (name.equals(manifestName)) return 1;
+
+		return 2;
+	}).thenComparing(Comparator.naturalOrder());
+	private static final Comparator<Entry> entryOrder = Comparator.comparing(entry -> entry.name, nameOrder);
+
+	private final ZipWriter writer; // also guards dirs and the writing
+	private final boolean compress;
+	private final Predicate<String> classNameFilter;
+	private final Map<String, Entry> entries; // entries held back until closing if sorting them, null otherwise
+	private final Set<String> dirs = new HashSet<>(); // directory entries written so far
+	private final DeflaterPool deflaters = new DeflaterPool(Deflater.DEFAULT_COMPRESSION);
+	private volatile boolean closed;
+}
@@ -219,7 +219,7 @@ public class OutputConsumerPath implements BiConsumer<String, byte[]>, Closeable
 		}
 	}
 
-	private static boolean isJar(Path path) {
+	static boolean isJar(Path path) {
 		if (Files.exists(path)) {
 			return !Files.isDirectory(path);
 		}
@@ -20,14 +20,30 @@ package net.fabricmc.tinyremapper;
 
 import java.util.Locale;
 
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
 import net.fabricmc.tinyremapper.api.TrMember;
 import net.fabricmc.tinyremapper.api.TrMember.MemberType;
 
 public final class PackageAccessChecker {
+	/**
+	 * Create a visitor running the same checks as a checking {@link AsmClassRemapper} without remapping or producing
+	 * anything.
+	 *
+	 * <p>Only the super types, the member descriptors and the references in method code get visited, which makes this
+	 * a cheap pass for recording the required access fixes ahead of the actual transformation.
+	 */
+	static ClassVisitor createScanner(AsmRemapper remapper) {
+		return new Scanner(remapper);
+	}
+
 	/**
 	 * Check if a class can access a specific class, printing and recording failure for later.
 	 */
@@ -118,8 +134,7 @@ public final class PackageAccessChecker {
 		if (cls == null) return;
 		cls = cls.getMrjOrigin();
 
-		String id = MemberInstance.getId(type, name, desc, remapper.tr.ignoreFieldDesc);
-		MemberInstance member = cls.resolve(type, id);	// cls is already the correct version
+		MemberInstance member = cls.resolve(type, name, desc);	// cls is already the correct version
 
 		if (member == null) {
 			// should be just missing super classes/interfaces from the analyzed class path, especially java ones
@@ -220,6 +235,76 @@ public final class PackageAccessChecker {
 		if (!memberAccessible) remapper.tr.membersToMakePublic.add(member);
 	}
 
+	private static final class Scanner extends ClassVisitor {
+		Scanner(AsmRemapper remapper) {
+			super(Opcodes.ASM9);
+
+			this.remapper = remapper;
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+			owner = name;
+
+			if (superName != null) checkClass(name, superName, "super class", remapper);
+
+			if (interfaces != null) {
+				for (String iface : interfaces) {
+					checkClass(name, iface, "super interface", remapper);
+				}
+			}
+		}
+
+		@Override
+		public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+			checkDesc(owner, descriptor, "field descriptor", remapper);
+
+			return null;
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+			checkDesc(owner, descriptor, "method descriptor", remapper);
+
+			return methodScanner;
+		}
+
+		private final MethodVisitor methodScanner = new MethodVisitor(Opcodes.ASM9) {
+			@Override
+			public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+				if (type != null) checkClass(owner, type, "try-catch", remapper);
+			}
+
+			@Override
+			public void visitTypeInsn(int opcode, String type) {
+				checkClass(owner, type, "type instruction", remapper);
+			}
+
+			@Override
+			public void visitLdcInsn(Object value) {
+				checkValue(owner, value, "ldc instruction", remapper);
+			}
+
+			@Override
+			public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+				checkDesc(owner, descriptor, "multianewarray instruction", remapper);
+			}
+
+			@Override
+			public void visitFieldInsn(int opcode, String fieldOwner, String name, String descriptor) {
+				checkMember(owner, fieldOwner, name, descriptor, TrMember.MemberType.FIELD, "field instruction", remapper);
+			}
+
+			@Override
+			public void visitMethodInsn(int opcode, String methodOwner, String name, String descriptor, boolean isInterface) {
+				checkMember(owner, methodOwner, name, descriptor, TrMember.MemberType.METHOD, "method instruction", remapper);
+			}
+		};
+
+		private final AsmRemapper remapper;
+		private String owner;
+	}
+
 	private static boolean isSamePackage(String clsA, int pkgEnd, String clsB) {
 		return pkgEnd < 0 && clsB.indexOf('/') < 0 // both empty package
 				|| pkgEnd >= 0 // both non-empty (considering prev condition)
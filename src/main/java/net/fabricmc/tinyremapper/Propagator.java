@@ -18,8 +18,6 @@
 
 package net.fabricmc.tinyremapper;
 
-import java.util.Set;
-
 import org.objectweb.asm.Opcodes;
 
 import net.fabricmc.tinyremapper.TinyRemapper.Direction;
@@ -27,13 +25,22 @@ import net.fabricmc.tinyremapper.TinyRemapper.LinkedMethodPropagation;
 import net.fabricmc.tinyremapper.api.TrMember;
 
 final class Propagator {
-	static void propagate(MemberInstance member, String memberId, String nameDst, Set<ClassInstance> visitedUp, Set<ClassInstance> visitedDown) {
+	static void propagate(MemberInstance member, String nameDst, ClassVisitMarks visitedUp, ClassVisitMarks visitedDown) {
+		propagate(member, member.cls.getName(), nameDst, visitedUp, visitedDown);
+	}
+
+	/**
+	 * Propagate a name on behalf of a mapping for a member in another class.
+	 *
+	 * @param originatingCls Owner of the mapped member, used for looking up its argument mappings.
+	 */
+	static void propagate(MemberInstance member, String originatingCls, String nameDst, ClassVisitMarks visitedUp, ClassVisitMarks visitedDown) {
 		ClassInstance cls = member.cls;
 		boolean isVirtual = member.isVirtual();
 
 		visitedUp.add(cls);
 		visitedDown.add(cls);
-		cls.propagate(member.type, cls.getName(), memberId, nameDst,
+		cls.propagate(member.type, originatingCls, member.name, member.desc, nameDst,
 				(isVirtual ? Direction.ANY : Direction.DOWN), isVirtual, false,
 				true, visitedUp, visitedDown);
 		visitedUp.clear();
@@ -43,13 +50,13 @@ final class Propagator {
 				&& cls.isRecord()
 				&& member.isField()
 				&& (member.access & (Opcodes.ACC_STATIC | Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL)) == (Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL)) { // not static, but private+final
-			String getterIdSrc = MemberInstance.getMethodId(member.name, "()".concat(member.desc));
-			MemberInstance getter = cls.getMember(TrMember.MemberType.METHOD, getterIdSrc);
+			String getterDescSrc = "()".concat(member.desc);
+			MemberInstance getter = cls.getMember(TrMember.MemberType.METHOD, member.name, getterDescSrc);
 
 			if (getter != null && getter.isVirtual()) {
 				visitedUp.add(cls);
 				visitedDown.add(cls);
-				cls.propagate(TrMember.MemberType.METHOD, cls.getName(), getterIdSrc, nameDst, Direction.ANY, true, true, true, visitedUp, visitedDown);
+				cls.propagate(TrMember.MemberType.METHOD, originatingCls, member.name, getterDescSrc, nameDst, Direction.ANY, true, true, true, visitedUp, visitedDown);
 				visitedUp.clear();
 				visitedDown.clear();
 			}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.nio.file.Path;
+
+import net.fabricmc.tinyremapper.api.TrClass;
+import net.fabricmc.tinyremapper.api.TrEnvironment;
+
+/**
+ * Listener for timings and counters of the individual processing phases.
+ *
+ * <p>A listener is registered through {@link TinyRemapper.Builder#metrics}, without one the remapper doesn't measure
+ * anything. All durations are wall clock times in nanoseconds. The methods may be invoked concurrently from the
+ * remapper's worker threads and have to return quickly.
+ */
+public interface RemapperMetrics {
+	/**
+	 * Invoked after all classes from a path passed to one of the read methods have been read.
+	 *
+	 * @param path Path as passed to the read method.
+	 * @param isInput Whether the path was read as input or as class path.
+	 * @param classCount Number of classes read from the path.
+	 * @param nanos Time from starting to read the path until all of its classes were read.
+	 */
+	default void pathRead(Path path, boolean isInput, int classCount, long nanos) { }
+
+	/**
+	 * Invoked after a phase completed.
+	 *
+	 * @param phase The phase.
+	 * @param env Environment the phase processed or null if the phase isn't specific to one MRJ version.
+	 * @param count Number of items processed, see {@link Phase}.
+	 * @param nanos Duration of the phase.
+	 */
+	default void phaseCompleted(Phase phase, /* @Nullable */ TrEnvironment env, int count, long nanos) { }
+
+	/**
+	 * Invoked after a state processor registered through {@link TinyRemapper.Builder#extraStateProcessor} ran.
+	 */
+	default void stateProcessorCompleted(TinyRemapper.StateProcessor processor, TrEnvironment env, long nanos) { }
+
+	/**
+	 * Invoked after transforming a single class in apply, excluding passing it to the output consumer.
+	 *
+	 * @param size Size of the transformed class file in bytes.
+	 */
+	default void classApplied(TrClass cls, int size, long nanos) { }
+
+	/**
+	 * Invoked at the end of every apply with the member resolution cache statistics since the previous invocation.
+	 *
+	 * @param hits Resolutions answered from the cache.
+	 * @param misses Resolutions that had to walk the class hierarchy.
+	 * @param evictions Entries evicted from the cache, only if limited through {@link TinyRemapper.Builder#resolveCacheSize}.
+	 */
+	default void resolveCacheStats(long hits, long misses, long evictions) { }
+
+	enum Phase {
+		/** Loading and checking the mappings, count is the number of class, method and field mappings. */
+		LOAD_MAPPINGS,
+		/** Distributing the read classes to the MRJ version states, count is the number of classes. */
+		MRJ_SETUP,
+		/** Linking the classes with their parents, count is the number of classes. */
+		MERGE,
+		/** Resolving the inherited members if enabled through {@link TinyRemapper.Builder#precomputeResolution}, count is the number of classes. */
+		PRECOMPUTE_RESOLUTION,
+		/** Propagating the member mappings through the hierarchy, count is the number of member mappings. */
+		PROPAGATE,
+		/** Determining the package access fixes ahead of apply, count is the number of classes. */
+		ACCESS_ANALYSIS,
+		/** Transforming and outputting the input classes, count is the number of classes. */
+		APPLY
+	}
+}
@@ -19,7 +19,9 @@
 package net.fabricmc.tinyremapper;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -29,6 +31,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -39,17 +42,22 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.zip.Inflater;
 import java.util.zip.ZipError;
 
 import org.objectweb.asm.AnnotationVisitor;
@@ -63,8 +71,6 @@ import org.objectweb.asm.RecordComponentVisitor;
 import org.objectweb.asm.commons.Remapper;
 import org.objectweb.asm.util.CheckClassAdapter;
 
-import net.fabricmc.tinyremapper.IMappingProvider.MappingAcceptor;
-import net.fabricmc.tinyremapper.IMappingProvider.Member;
 import net.fabricmc.tinyremapper.api.TrClass;
 import net.fabricmc.tinyremapper.api.TrEnvironment;
 import net.fabricmc.tinyremapper.api.TrLogger;
@@ -84,6 +90,17 @@ public class TinyRemapper {
 			return this;
 		}
 
+		/**
+		 * Use pre-built mappings, which may be shared with other remappers.
+		 *
+		 * <p>The compiled mappings have to use the same ignoreFieldDesc setting as the remapper. They are used as-is
+		 * if they are the only mappings, otherwise they are combined with the others for each remapper.
+		 */
+		public Builder withMappings(CompiledMappings mappings) {
+			compiledMappings.add(Objects.requireNonNull(mappings, "null mappings"));
+			return this;
+		}
+
 		public Builder ignoreFieldDesc(boolean value) {
 			this.ignoreFieldDesc = value;
 			return this;
@@ -94,6 +111,19 @@ public class TinyRemapper {
 			return this;
 		}
 
+		/**
+		 * Run all parallel work on the supplied executor instead of a thread pool owned by the remapper.
+		 *
+		 * <p>The executor is used as is and stays running after {@link TinyRemapper#finish}, its lifecycle belongs to
+		 * the caller. This allows multiple remappers to share one pool instead of each creating its own. The thread count
+		 * still determines how the work is split up, it defaults to the pool's parallelism for a {@link ForkJoinPool}.
+		 * The thread waiting for parallel work processes tasks as well, so even a single threaded executor completes it.
+		 */
+		public Builder executor(ExecutorService executor) {
+			this.executor = executor;
+			return this;
+		}
+
 		/**
 		 * Keep the input data after consuming it for apply(), allows multiple apply invocations() even without input tag use.
 		 */
@@ -102,6 +132,65 @@ public class TinyRemapper {
 			return this;
 		}
 
+		/**
+		 * Only reprocess changed input classes when invoking apply() again after reading updated inputs, implies
+		 * keepInputData.
+		 *
+		 * <p>Inputs read again are compared with their previous version. Unchanged classes are skipped and changes
+		 * that keep a class' hierarchy and members intact only cause that class to be transformed again, the output
+		 * for all other classes is served from the previous apply invocation. Any other change, adding classes or
+		 * using state processors or package access fixing falls back to processing everything again.
+		 */
+		public Builder incremental(boolean value) {
+			this.incremental = value;
+			return this;
+		}
+
+		/**
+		 * Keep the data of input classes compressed in memory until it's being used by apply(), disabled by default.
+		 *
+		 * <p>This trades some CPU time when reading and applying for a smaller heap footprint, especially with
+		 * keepInputData where the data stays resident across apply invocations.
+		 */
+		public Builder compressInputData(boolean value) {
+			this.compressInputData = value;
+			return this;
+		}
+
+		/**
+		 * Maximum number of bytes of transformed class data to keep on the heap for repeated apply() invocations with
+		 * input tags or in incremental mode, unlimited by default.
+		 *
+		 * <p>Output beyond the limit is written to a temporary file and read back as needed.
+		 */
+		public Builder outputBufferMemoryLimit(long bytes) {
+			this.outputBufferMemoryLimit = bytes;
+			return this;
+		}
+
+		/**
+		 * Maximum number of classes being transformed or passed to the output consumer at once, defaults to the thread
+		 * count.
+		 *
+		 * <p>apply() only starts transforming another class after a previous one has been accepted by the consumer, so a
+		 * slow consumer throttles the transformation instead of transformed classes accumulating in memory.
+		 */
+		public Builder maxPendingOutputs(int count) {
+			this.maxPendingOutputs = count;
+			return this;
+		}
+
+		/**
+		 * Directory for caching the analysis results of classpath jars across runs, null to disable.
+		 *
+		 * <p>An index is stored for every classpath jar read from the default file system, it is reused as long as the
+		 * jar's path, size and modification time stay the same.
+		 */
+		public Builder classPathCache(Path dir) {
+			this.classPathCacheDir = dir;
+			return this;
+		}
+
 		public Builder withForcedPropagation(Set<String> entries) {
 			forcePropagation.addAll(entries);
 			return this;
@@ -142,6 +231,41 @@ public class TinyRemapper {
 			return this;
 		}
 
+		/**
+		 * Whether to resolve all inherited members of every class right after linking the class hierarchy.
+		 *
+		 * <p>Member resolution then never walks the hierarchy or modifies the resolution cache anymore, at the cost of
+		 * resolving members that may never be looked up. Ignored if the resolution cache is limited through
+		 * {@link #resolveCacheSize}.
+		 */
+		public Builder precomputeResolution(boolean value) {
+			precomputeResolution = value;
+			return this;
+		}
+
+		/**
+		 * Limit the member resolution cache to the supplied number of entries across all classes, 0 for unbounded.
+		 *
+		 * <p>By default every class caches the results of all its resolutions, including failed ones, for as long as the
+		 * remapper exists. A limited cache evicts the least recently used results and resolves them again if needed.
+		 */
+		public Builder resolveCacheSize(int maxEntries) {
+			resolveCacheSize = maxEntries;
+			return this;
+		}
+
+		/**
+		 * Number of remapped descriptors and signatures to cache each, 0 (default) to disable caching.
+		 *
+		 * <p>Descriptors and signatures referencing mapped classes repeat heavily across classes, the cache avoids
+		 * parsing and rebuilding them every time. The results of any extra remapper get cached as well. Whether this
+		 * pays off depends on the inputs, compare with ApplyBenchmark before enabling it.
+		 */
+		public Builder descriptorCacheSize(int entries) {
+			descriptorCacheSize = entries;
+			return this;
+		}
+
 		public Builder checkPackageAccess(boolean value) {
 			checkPackageAccess = value;
 			return this;
@@ -217,6 +341,14 @@ public class TinyRemapper {
 			return this;
 		}
 
+		/**
+		 * Report timings and counters for the processing phases to the supplied listener.
+		 */
+		public Builder metrics(RemapperMetrics metrics) {
+			this.metrics = metrics;
+			return this;
+		}
+
 		public Builder extension(TinyRemapper.Extension extension) {
 			extension.attach(this);
 			return this;
@@ -227,30 +359,47 @@ public class TinyRemapper {
 		}
 
 		public TinyRemapper build() {
-			TinyRemapper remapper = new TinyRemapper(mappingProviders, ignoreFieldDesc, threadCount,
-					keepInputData,
+			for (CompiledMappings mappings : compiledMappings) {
+				if (mappings.isIgnoreFieldDesc() != ignoreFieldDesc) {
+					throw new IllegalStateException("compiled mappings don't match the remapper's ignoreFieldDesc setting");
+				}
+			}
+
+			TinyRemapper remapper = new TinyRemapper(mappingProviders, compiledMappings, ignoreFieldDesc, threadCount, executor,
+					keepInputData || incremental, incremental, compressInputData, outputBufferMemoryLimit, maxPendingOutputs,
 					forcePropagation, knownIndyBsm, propagatePrivate,
 					propagateBridges, propagateRecordComponents,
-					removeFrames, ignoreConflicts, resolveMissing, checkPackageAccess || fixPackageAccess, fixPackageAccess,
+					removeFrames, ignoreConflicts, resolveMissing, precomputeResolution, resolveCacheSize, descriptorCacheSize, checkPackageAccess || fixPackageAccess, fixPackageAccess,
 					rebuildSourceFilenames, skipLocalMapping, renameInvalidLocals, invalidLvNamePattern, inferNameFromSameLvIndex,
+					classPathCacheDir,
 					analyzeVisitors, stateProcessors, preApplyVisitors, postApplyVisitors,
-					extraRemapper, logger);
+					extraRemapper, metrics, logger);
 
 			return remapper;
 		}
 
 		private final Set<IMappingProvider> mappingProviders = new HashSet<>();
+		private final List<CompiledMappings> compiledMappings = new ArrayList<>();
 		private boolean ignoreFieldDesc;
 		private int threadCount;
+		private ExecutorService executor;
 		private final Set<String> forcePropagation = new HashSet<>();
 		private final Set<String> knownIndyBsm = new HashSet<>();
 		private boolean keepInputData = false;
+		private boolean incremental = false;
+		private boolean compressInputData = false;
+		private long outputBufferMemoryLimit = Long.MAX_VALUE;
+		private int maxPendingOutputs;
+		private Path classPathCacheDir;
 		private boolean propagatePrivate = false;
 		private LinkedMethodPropagation propagateBridges = LinkedMethodPropagation.DISABLED;
 		private LinkedMethodPropagation propagateRecordComponents = LinkedMethodPropagation.DISABLED;
 		private boolean removeFrames = false;
 		private boolean ignoreConflicts = false;
 		private boolean resolveMissing = false;
+		private boolean precomputeResolution = false;
+		private int resolveCacheSize;
+		private int descriptorCacheSize;
 		private boolean checkPackageAccess = false;
 		private boolean fixPackageAccess = false;
 		private boolean rebuildSourceFilenames = false;
@@ -263,6 +412,7 @@ public class TinyRemapper {
 		private final List<ApplyVisitorProvider> preApplyVisitors = new ArrayList<>();
 		private final List<ApplyVisitorProvider> postApplyVisitors = new ArrayList<>();
 		private Remapper extraRemapper;
+		private RemapperMetrics metrics;
 	}
 
 	public interface Extension {
@@ -308,28 +458,46 @@ public class TinyRemapper {
 		}
 	}
 
-	private TinyRemapper(Collection<IMappingProvider> mappingProviders, boolean ignoreFieldDesc,
-			int threadCount,
-			boolean keepInputData,
+	private TinyRemapper(Collection<IMappingProvider> mappingProviders, List<CompiledMappings> compiledMappings, boolean ignoreFieldDesc,
+			int threadCount, ExecutorService executor,
+			boolean keepInputData, boolean incremental, boolean compressInputData, long outputBufferMemoryLimit, int maxPendingOutputs,
 			Set<String> forcePropagation, Set<String> knownIndyBsm, boolean propagatePrivate,
 			LinkedMethodPropagation propagateBridges, LinkedMethodPropagation propagateRecordComponents,
 			boolean removeFrames,
 			boolean ignoreConflicts,
 			boolean resolveMissing,
+			boolean precomputeResolution,
+			int resolveCacheSize,
+			int descriptorCacheSize,
 			boolean checkPackageAccess,
 			boolean fixPackageAccess,
 			boolean rebuildSourceFilenames,
 			boolean skipLocalMapping,
 			boolean renameInvalidLocals, Pattern invalidLvNamePattern, boolean inferNameFromSameLvIndex,
+			Path classPathCacheDir,
 			List<AnalyzeVisitorProvider> analyzeVisitors, List<StateProcessor> stateProcessors,
 			List<ApplyVisitorProvider> preApplyVisitors, List<ApplyVisitorProvider> postApplyVisitors,
-			Remapper extraRemapper, TrLogger logger) {
+			Remapper extraRemapper, RemapperMetrics metrics, TrLogger logger) {
 		this.logger = logger;
 		this.mappingProviders = mappingProviders;
+		this.compiledMappings = compiledMappings;
 		this.ignoreFieldDesc = ignoreFieldDesc;
-		this.threadCount = threadCount > 0 ? threadCount : Math.max(Runtime.getRuntime().availableProcessors(), 2);
+
+		if (threadCount > 0) {
+			this.threadCount = threadCount;
+		} else if (executor instanceof ForkJoinPool) {
+			this.threadCount = Math.max(((ForkJoinPool) executor).getParallelism(), 2);
+		} else {
+			this.threadCount = Math.max(Runtime.getRuntime().availableProcessors(), 2);
+		}
+
 		this.keepInputData = keepInputData;
-		this.threadPool = Executors.newFixedThreadPool(this.threadCount);
+		this.incremental = incremental;
+		this.classDataCompressor = compressInputData ? new ClassDataCompressor() : null;
+		this.outputBufferMemoryLimit = outputBufferMemoryLimit;
+		this.maxPendingOutputs = maxPendingOutputs > 0 ? maxPendingOutputs : this.threadCount;
+		this.threadPool = executor != null ? executor : Executors.newFixedThreadPool(this.threadCount);
+		this.ownsThreadPool = executor == null;
 		this.forcePropagation = forcePropagation;
 		this.knownIndyBsm = knownIndyBsm;
 		this.propagatePrivate = propagatePrivate;
@@ -338,6 +506,10 @@ public class TinyRemapper {
 		this.removeFrames = removeFrames;
 		this.ignoreConflicts = ignoreConflicts;
 		this.resolveMissing = resolveMissing;
+		this.precomputeResolution = precomputeResolution;
+		this.resolveCache = resolveCacheSize > 0 ? new BoundedResolveCache(resolveCacheSize, ignoreFieldDesc) : null;
+		this.descriptorCache = descriptorCacheSize > 0 ? new DescriptorCache(descriptorCacheSize) : null;
+		this.signatureCache = descriptorCacheSize > 0 ? new DescriptorCache(descriptorCacheSize) : null;
 		this.checkPackageAccess = checkPackageAccess;
 		this.fixPackageAccess = fixPackageAccess;
 		this.rebuildSourceFilenames = rebuildSourceFilenames;
@@ -345,17 +517,71 @@ public class TinyRemapper {
 		this.renameInvalidLocals = renameInvalidLocals;
 		this.invalidLvNamePattern = invalidLvNamePattern;
 		this.inferNameFromSameLvIndex = inferNameFromSameLvIndex;
+		this.classPathCacheDir = classPathCacheDir;
 		this.analyzeVisitors = analyzeVisitors;
 		this.stateProcessors = stateProcessors;
 		this.preApplyVisitors = preApplyVisitors;
 		this.postApplyVisitors = postApplyVisitors;
 		this.extraRemapper = extraRemapper;
+		this.metrics = metrics;
+		this.resolveCacheHits = metrics != null ? new LongAdder() : null;
+		this.resolveCacheMisses = metrics != null ? new LongAdder() : null;
+		this.base = null;
 
 		this.knownIndyBsm.add("java/lang/invoke/StringConcatFactory");
 		this.knownIndyBsm.add("java/lang/runtime/ObjectMethods");
 		this.knownIndyBsm.add("java/lang/runtime/SwitchBootstraps");
 	}
 
+	/**
+	 * Create an overlay with the same configuration and thread pool as base, see {@link #newOverlay}.
+	 */
+	private TinyRemapper(TinyRemapper base) {
+		this.logger = base.logger;
+		this.mappingProviders = Collections.emptyList();
+		this.compiledMappings = Collections.singletonList(base.mappings); // shared as-is by loadMappings
+		this.ignoreFieldDesc = base.ignoreFieldDesc;
+		this.threadCount = base.threadCount;
+		this.keepInputData = base.keepInputData;
+		this.incremental = base.incremental;
+		this.classDataCompressor = base.classDataCompressor;
+		this.outputBufferMemoryLimit = base.outputBufferMemoryLimit;
+		this.maxPendingOutputs = base.maxPendingOutputs;
+		this.threadPool = base.threadPool;
+		this.ownsThreadPool = false;
+		this.forcePropagation = base.forcePropagation;
+		this.knownIndyBsm = base.knownIndyBsm;
+		this.propagatePrivate = base.propagatePrivate;
+		this.propagateBridges = base.propagateBridges;
+		this.propagateRecordComponents = base.propagateRecordComponents;
+		this.removeFrames = base.removeFrames;
+		this.ignoreConflicts = base.ignoreConflicts;
+		this.resolveMissing = base.resolveMissing;
+		this.precomputeResolution = base.precomputeResolution;
+		this.resolveCache = base.resolveCache != null ? new BoundedResolveCache(base.resolveCache.maxSize, ignoreFieldDesc) : null;
+		this.descriptorCache = base.descriptorCache; // same class mappings, the overlay remaps the same way
+		this.signatureCache = base.signatureCache;
+		this.checkPackageAccess = base.checkPackageAccess;
+		this.fixPackageAccess = base.fixPackageAccess;
+		this.rebuildSourceFilenames = base.rebuildSourceFilenames;
+		this.skipLocalMapping = base.skipLocalMapping;
+		this.renameInvalidLocals = base.renameInvalidLocals;
+		this.invalidLvNamePattern = base.invalidLvNamePattern;
+		this.inferNameFromSameLvIndex = base.inferNameFromSameLvIndex;
+		this.classPathCacheDir = base.classPathCacheDir;
+		this.analyzeVisitors = base.analyzeVisitors;
+		this.stateProcessors = base.stateProcessors;
+		this.preApplyVisitors = base.preApplyVisitors;
+		this.postApplyVisitors = base.postApplyVisitors;
+		this.extraRemapper = base.extraRemapper;
+		this.metrics = base.metrics;
+		this.resolveCacheHits = metrics != null ? new LongAdder() : null;
+		this.resolveCacheMisses = metrics != null ? new LongAdder() : null;
+		this.base = base;
+
+		defaultState.baseState = base.defaultState;
+	}
+
 	public static Builder newRemapper() {
 		return new Builder(new ConsoleLogger());
 	}
@@ -365,17 +591,44 @@ public class TinyRemapper {
 	}
 
 	public void finish() {
-		threadPool.shutdown();
+		if (ownsThreadPool) { // not supplied through the builder or shared with the overlay's base
+			threadPool.shutdown();
 
-		try {
-			threadPool.awaitTermination(20, TimeUnit.SECONDS);
-		} catch (InterruptedException e) {
-			e.printStackTrace();
+			try {
+				threadPool.awaitTermination(20, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
 		}
 
-		outputBuffer = null;
+		discardOutputBuffer();
 		defaultState.classes.clear();
 		mrjStates.clear();
+
+		if (classDataCompressor != null && base == null) classDataCompressor.close();
+	}
+
+	/**
+	 * Create a lightweight remapper for processing further inputs on top of all classes read by this remapper.
+	 *
+	 * <p>The overlay shares this remapper's mappings, configuration and thread pool. Its own classes may extend and
+	 * reference the classes read here, which are being processed only once, ahead of creating the first overlay. This
+	 * allows reading a large class path once and then remapping any number of small jobs against it, each in its own
+	 * overlay, without the cost of reading, merging and propagating the class path again.
+	 *
+	 * <p>Overlays don't modify this remapper's classes, so they may be used concurrently and discarded independently
+	 * through {@link #finish}. Method names are inherited from this remapper's classes but not the other way around,
+	 * overlay mappings can't rename members of the base. This remapper must not read further classes or be finished
+	 * while overlays are in use.
+	 */
+	public synchronized TinyRemapper newOverlay() {
+		refresh();
+
+		for (MrjState state : mrjStates.values()) {
+			mrjRefresh(state);
+		}
+
+		return new TinyRemapper(this);
 	}
 
 	public InputTag createInputTag() {
@@ -399,7 +652,7 @@ public class TinyRemapper {
 	}
 
 	public void readInputs(InputTag tag, Path... inputs) {
-		read(inputs, true, tag).join();
+		joinRead(read(inputs, true, tag));
 	}
 
 	public CompletableFuture<?> readInputsAsync(Path... inputs) {
@@ -407,46 +660,70 @@ public class TinyRemapper {
 	}
 
 	public CompletableFuture<?> readInputsAsync(InputTag tag, Path... inputs) {
-		CompletableFuture<?> ret = read(inputs, true, tag);
-
-		if (!ret.isDone()) {
-			pendingReads.add(ret);
-		} else {
-			ret.join();
-		}
+		CompletableFuture<List<ClassInstance>> ret = read(inputs, true, tag);
+		if (ret.isDone()) joinRead(ret);
 
 		return ret;
 	}
 
 	public void readClassPath(final Path... inputs) {
-		read(inputs, false, null).join();
+		joinRead(read(inputs, false, null));
 	}
 
 	public CompletableFuture<?> readClassPathAsync(final Path... inputs) {
-		CompletableFuture<?> ret = read(inputs, false, null);
-
-		if (!ret.isDone()) {
-			pendingReads.add(ret);
-		} else {
-			ret.join();
-		}
+		CompletableFuture<List<ClassInstance>> ret = read(inputs, false, null);
+		if (ret.isDone()) joinRead(ret);
 
 		return ret;
 	}
 
+	/**
+	 * Wait for a read to complete, discarding it if it failed.
+	 */
+	private void joinRead(CompletableFuture<List<ClassInstance>> read) {
+		try {
+			read.join();
+		} catch (RuntimeException e) {
+			synchronized (pendingReads) {
+				pendingReads.remove(read);
+			}
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Start reading the supplied paths and register the read with pendingReads.
+	 *
+	 * <p>The read classes are only added to readClasses once refresh consumes the read, so reads may complete at any
+	 * time, including while an apply is processing the previously read classes. Registering the read only takes the
+	 * pendingReads lock, not this remapper's monitor, so starting a read doesn't wait for a running apply.
+	 */
 	private CompletableFuture<List<ClassInstance>> read(Path[] inputs, boolean isInput, InputTag tag) {
 		InputTag[] tags = singleInputTags.get().get(tag);
 		List<CompletableFuture<List<ClassInstance>>> futures = new ArrayList<>();
 		List<FileSystemReference> fsToClose = Collections.synchronizedList(new ArrayList<>());
 
 		for (Path input : inputs) {
-			futures.addAll(read(input, isInput, tags, true, fsToClose));
+			long startTime = System.nanoTime();
+			List<CompletableFuture<List<ClassInstance>>> inputFutures = read(input, isInput, tags, true, fsToClose);
+
+			if (metrics != null && !inputFutures.isEmpty()) {
+				futures.add(CompletableFuture.allOf(inputFutures.toArray(new CompletableFuture[0])).thenApply(ignore -> {
+					List<ClassInstance> res = inputFutures.stream().flatMap(f -> f.join().stream()).collect(Collectors.toList());
+					metrics.pathRead(input, isInput, res.size(), System.nanoTime() - startTime);
+
+					return res;
+				}));
+			} else {
+				futures.addAll(inputFutures);
+			}
 		}
 
 		CompletableFuture<List<ClassInstance>> ret;
 
 		if (futures.isEmpty()) {
-			return CompletableFuture.completedFuture(Collections.emptyList());
+			ret = CompletableFuture.completedFuture(Collections.emptyList());
 		} else if (futures.size() == 1) {
 			ret = futures.get(0);
 		} else {
@@ -454,15 +731,7 @@ public class TinyRemapper {
 					.thenApply(ignore -> futures.stream().flatMap(f -> f.join().stream()).collect(Collectors.toList()));
 		}
 
-		if (!dirty) {
-			dirty = true;
-
-			for (MrjState state : mrjStates.values()) {
-				state.dirty = true;
-			}
-		}
-
-		return ret.whenComplete((res, exc) -> {
+		ret = ret.whenComplete((res, exc) -> {
 			for (FileSystemReference fs : fsToClose) {
 				try {
 					fs.close();
@@ -470,15 +739,13 @@ public class TinyRemapper {
 					// ignore
 				}
 			}
+		});
 
-			if (res != null) {
-				for (ClassInstance node : res) {
-					addClass(node, readClasses, true);
-				}
-			}
+		synchronized (pendingReads) {
+			pendingReads.add(ret);
+		}
 
-			assert dirty;
-		});
+		return ret;
 	}
 
 	private static void addClass(ClassInstance cls, Map<String, ClassInstance> out, boolean isVersionAware) {
@@ -534,7 +801,14 @@ public class TinyRemapper {
 			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
 				String name = file.getFileName().toString();
 
-				if (name.endsWith(".jar")
+				if ((name.endsWith(".jar") || name.endsWith(".zip"))
+						&& file.getFileSystem() == FileSystems.getDefault()) {
+					if (!isInput && classPathCacheDir != null) {
+						ret.add(readCachedZip(file, tags, srcPath));
+					} else {
+						ret.add(readZip(file, isInput, tags, srcPath, null, null));
+					}
+				} else if (name.endsWith(".jar")
 						|| name.endsWith(".zip")
 						|| name.endsWith(".class")) {
 					ret.add(CompletableFuture.supplyAsync(new Supplier<List<ClassInstance>>() {
@@ -561,9 +835,10 @@ public class TinyRemapper {
 	private List<ClassInstance> readFile(Path file, boolean isInput, InputTag[] tags, final Path srcPath,
 			List<FileSystemReference> fsToClose) throws IOException, URISyntaxException {
 		List<ClassInstance> ret = new ArrayList<ClassInstance>();
+		ClassHeaderScanner scanner = isInput ? null : new ClassHeaderScanner();
 
 		if (file.toString().endsWith(".class")) {
-			ClassInstance res = analyze(isInput, tags, srcPath, file);
+			ClassInstance res = analyze(isInput, tags, srcPath, file, scanner);
 			if (res != null) ret.add(res);
 		} else {
 			FileSystemReference fs = FileSystemReference.openJar(file);
@@ -573,7 +848,7 @@ public class TinyRemapper {
 				@Override
 				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
 					if (file.toString().endsWith(".class")) {
-						ClassInstance res = analyze(isInput, tags, srcPath, file);
+						ClassInstance res = analyze(isInput, tags, srcPath, file, scanner);
 						if (res != null) ret.add(res);
 					}
 
@@ -585,6 +860,162 @@ public class TinyRemapper {
 		return ret;
 	}
 
+	/**
+	 * Read all classes from a zip file on the default file system.
+	 *
+	 * <p>The central directory is only parsed once, the class entries are then split into batches that get read,
+	 * inflated and analyzed concurrently. This avoids the zipfs overhead of {@link #readFile} for the common case.
+	 *
+	 * @param indexFile class path index to write after reading, or null
+	 */
+	private CompletableFuture<List<ClassInstance>> readZip(final Path file, boolean isInput, InputTag[] tags, final Path srcPath,
+			Path indexFile, BasicFileAttributes attrs) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return ZipReader.open(file);
+			} catch (IOException e) {
+				throw new RuntimeException("Error reading file "+file, e);
+			}
+		}, threadPool).thenCompose(zip -> {
+			List<ZipReader.Entry> entries = new ArrayList<>();
+
+			for (ZipReader.Entry entry : zip.getEntries()) {
+				if (!entry.isDirectory() && entry.name.endsWith(".class")) entries.add(entry);
+			}
+
+			ClassInstance[] classes = new ClassInstance[entries.size()];
+			int batchSize = Math.max(minZipBatchSize, (entries.size() + threadCount * 4 - 1) / (threadCount * 4));
+			List<CompletableFuture<?>> batches = new ArrayList<>();
+
+			for (int start = 0; start < entries.size(); start += batchSize) {
+				final int batchStart = start;
+				final int batchEnd = Math.min(start + batchSize, entries.size());
+
+				batches.add(CompletableFuture.runAsync(() -> {
+					Inflater inflater = new Inflater(true);
+					ClassHeaderScanner scanner = isInput ? null : new ClassHeaderScanner();
+
+					try {
+						for (int i = batchStart; i < batchEnd; i++) {
+							ZipReader.Entry entry = entries.get(i);
+
+							if (isInput) {
+								classes[i] = analyze(true, tags, srcPath, file, entry.name, zip.read(entry, inflater));
+							} else {
+								classes[i] = analyzeClassPath(tags, srcPath, file, entry.name, zip.open(entry, inflater), scanner);
+							}
+						}
+					} catch (IOException e) {
+						throw new RuntimeException("Error reading file "+file, e);
+					} finally {
+						inflater.end();
+					}
+				}, threadPool));
+			}
+
+			return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+					.thenApply(ignore -> {
+						List<ClassInstance> ret = new ArrayList<>(classes.length);
+						List<String> entryNames = new ArrayList<>(classes.length);
+
+						for (int i = 0; i < classes.length; i++) {
+							if (classes[i] != null) {
+								ret.add(classes[i]);
+								entryNames.add(entries.get(i).name);
+							}
+						}
+
+						if (indexFile != null) {
+							try {
+								ClassPathIndex.write(indexFile, file, attrs, entryNames, ret);
+							} catch (IOException e) {
+								logger.warn("can't write class path index %s: %s", indexFile, e);
+							}
+						}
+
+						return ret;
+					})
+					.whenComplete((res, exc) -> {
+						try {
+							zip.close();
+						} catch (IOException e) {
+							// ignore
+						}
+					});
+		});
+	}
+
+	/**
+	 * Read all classes from a classpath jar, using the class path index from the cache directory if it is up to date.
+	 *
+	 * <p>A missing or outdated index gets (re-)created by reading the jar normally.
+	 */
+	private CompletableFuture<List<ClassInstance>> readCachedZip(final Path file, InputTag[] tags, final Path srcPath) {
+		Path indexFile = ClassPathIndex.getIndexFile(classPathCacheDir, file);
+		BasicFileAttributes attrs;
+		ClassPathIndex index;
+
+		try {
+			attrs = Files.readAttributes(file, BasicFileAttributes.class);
+			index = ClassPathIndex.read(indexFile, file, attrs);
+		} catch (IOException e) {
+			logger.warn("can't read class path index %s: %s", indexFile, e);
+			return readZip(file, false, tags, srcPath, null, null);
+		}
+
+		if (index == null) return readZip(file, false, tags, srcPath, indexFile, attrs);
+
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return readIndex(index, file, tags, srcPath);
+			} catch (IOException e) {
+				throw new RuntimeException("Error reading file "+file, e);
+			}
+		}, threadPool);
+	}
+
+	private List<ClassInstance> readIndex(ClassPathIndex index, Path file, InputTag[] tags, Path srcPath) throws IOException {
+		List<ClassInstance> ret = new ArrayList<>(index.getEntries().size());
+		ZipReader zip = null;
+		Map<String, ZipReader.Entry> zipEntries = null;
+		Inflater inflater = null;
+
+		try {
+			for (ClassPathIndex.Entry entry : index.getEntries()) {
+				ClassInstance cls = new ClassInstance(this, false, tags, srcPath, null);
+				ClassVisitor cv = createAnalyzeVisitor(false, tags, entry.name, entry.mrjVersion, cls);
+
+				if (cv instanceof AnalyzeVisitor) {
+					entry.accept(cv);
+				} else { // an analyze visitor provider wants to observe the actual class
+					if (zip == null) {
+						zip = ZipReader.open(file);
+						zipEntries = new HashMap<>();
+						inflater = new Inflater(true);
+
+						for (ZipReader.Entry zipEntry : zip.getEntries()) {
+							zipEntries.put(zipEntry.name, zipEntry);
+						}
+					}
+
+					ZipReader.Entry zipEntry = zipEntries.get(entry.entryName);
+					if (zipEntry == null) throw new IOException("missing entry "+entry.entryName);
+
+					new ClassReader(zip.read(zipEntry, inflater)).accept(cv, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES | ClassReader.SKIP_CODE);
+				}
+
+				ret.add(cls);
+			}
+		} finally {
+			if (zip != null) {
+				zip.close();
+				inflater.end();
+			}
+		}
+
+		return ret;
+	}
+
 	/**
 	 * Determine the MRJ version of the supplied class file and name.
 	 *
@@ -617,165 +1048,186 @@ public class TinyRemapper {
 		return ClassInstance.MRJ_DEFAULT;
 	}
 
-	private ClassInstance analyze(boolean isInput, InputTag[] tags, Path srcPath, Path file) throws IOException {
-		byte[] data = Files.readAllBytes(file);
-		ClassReader reader;
+	/**
+	 * Determine the MRJ version of the supplied zip entry name and class name.
+	 *
+	 * <p>This is the equivalent of {@link #analyzeMrjVersion(Path, String)} for '/' separated zip entry names.
+	 */
+	static int analyzeMrjVersion(String entryName, String name) {
+		assert entryName.endsWith(".class");
 
-		try {
-			reader = new ClassReader(data);
-		} catch (Throwable t) {
-			throw new RuntimeException("error analyzing "+file+" from "+srcPath, t);
+		int pkgCount = 0;
+		int pos = 0;
+
+		while ((pos = name.indexOf('/', pos) + 1) > 0) {
+			pkgCount++;
 		}
 
-		if ((reader.getAccess() & Opcodes.ACC_MODULE) != 0) return null; // special attribute for module-info.class, can't be a regular class
+		int rootPkgStart = entryName.length();
 
-		final String name = reader.getClassName();
-		final int mrjVersion = analyzeMrjVersion(file, name);
+		for (int i = 0; i <= pkgCount; i++) {
+			rootPkgStart = entryName.lastIndexOf('/', rootPkgStart - 1);
+			if (rootPkgStart <= 0) return ClassInstance.MRJ_DEFAULT;
+		}
 
-		final ClassInstance ret = new ClassInstance(this, isInput, tags, srcPath, isInput ? data : null);
+		int versionEnd = rootPkgStart++;
+		int versionStart = entryName.lastIndexOf('/', versionEnd - 1) + 1;
+		int prefixStart = versionStart - mrjEntryPrefix.length();
 
-		ClassVisitor cv = new ClassVisitor(Opcodes.ASM9) {
-			@Override
-			public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
-				ret.init(name, version, mrjVersion, signature, superName, access, interfaces);
-				super.visit(version, access, name, signature, superName, interfaces);
+		if (prefixStart >= 0
+				&& (prefixStart == 0 || entryName.charAt(prefixStart - 1) == '/')
+				&& entryName.startsWith(mrjEntryPrefix, prefixStart) // root pkg is in META-INF/versions/x
+				&& entryName.regionMatches(rootPkgStart, name, 0, name.length())) { // verify class name == path from root pkg dir, ignores suffix like .class
+			try {
+				return Integer.parseInt(entryName.substring(versionStart, versionEnd));
+			} catch (NumberFormatException e) {
+				// ignore
 			}
+		}
 
-			@Override
-			public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
-				MemberInstance prev = ret.addMember(new MemberInstance(TrMember.MemberType.METHOD, ret, name, desc, access, ret.getMembers().size()));
-				if (prev != null) throw new RuntimeException(String.format("duplicate method %s/%s%s in inputs", ret.getName(), name, desc));
+		return ClassInstance.MRJ_DEFAULT;
+	}
 
-				return super.visitMethod(access, name, desc, signature, exceptions);
-			}
+	private ClassInstance analyze(boolean isInput, InputTag[] tags, Path srcPath, Path file, ClassHeaderScanner scanner) throws IOException {
+		if (isInput) return analyze(true, tags, srcPath, file, null, Files.readAllBytes(file));
 
-			@Override
-			public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
-				MemberInstance prev = ret.addMember(new MemberInstance(TrMember.MemberType.FIELD, ret, name, desc, access, ret.getMembers().size()));
-				if (prev != null) throw new RuntimeException(String.format("duplicate field %s/%s;;%s in inputs", ret.getName(), name, desc));
+		try (InputStream is = Files.newInputStream(file)) {
+			return analyzeClassPath(tags, srcPath, file, null, is, scanner);
+		}
+	}
 
-				return super.visitField(access, name, desc, signature, value);
-			}
-		};
+	/**
+	 * Analyze a class from its raw bytes.
+	 *
+	 * @param file Class file or the archive containing the class.
+	 * @param entryName Zip entry name if file is an archive, null otherwise.
+	 */
+	private ClassInstance analyze(boolean isInput, InputTag[] tags, Path srcPath, Path file, String entryName, byte[] data) {
+		ClassReader reader;
 
-		for (int i = analyzeVisitors.size() - 1; i >= 0; i--) {
-			cv = analyzeVisitors.get(i).insertAnalyzeVisitor(isInput, mrjVersion, name, cv, tags);
+		try {
+			reader = new ClassReader(data);
+		} catch (Throwable t) {
+			throw new RuntimeException("error analyzing "+(entryName != null ? entryName : file)+" from "+srcPath, t);
 		}
 
+		if ((reader.getAccess() & Opcodes.ACC_MODULE) != 0) return null; // special attribute for module-info.class, can't be a regular class
+
+		final String name = reader.getClassName();
+		final int mrjVersion = entryName != null ? analyzeMrjVersion(entryName, name) : analyzeMrjVersion(file, name);
+
+		final ClassInstance ret = new ClassInstance(this, isInput, tags, srcPath, isInput ? data : null);
+		ClassVisitor cv = createAnalyzeVisitor(isInput, tags, name, mrjVersion, ret);
+
 		reader.accept(cv, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES | ClassReader.SKIP_CODE);
 
 		return ret;
 	}
 
-	private void loadMappings() {
-		MappingAcceptor acceptor = new MappingAcceptor() {
-			@Override
-			public void acceptClass(String srcName, String dstName) {
-				if (srcName == null) throw new NullPointerException("null src name");
-				if (dstName == null) throw new NullPointerException("null dst name");
-
-				classMap.put(srcName, dstName);
-			}
+	/**
+	 * Analyze a classpath class by only scanning its header and member declarations from a stream.
+	 *
+	 * <p>The full class is only read if an analyze visitor wants to observe the class, the regular ClassReader based
+	 * path is used then.
+	 *
+	 * @param file Class file or the archive containing the class.
+	 * @param entryName Zip entry name if file is an archive, null otherwise.
+	 */
+	private ClassInstance analyzeClassPath(InputTag[] tags, Path srcPath, Path file, String entryName, InputStream is, ClassHeaderScanner scanner) {
+		try {
+			scanner.readHeader(is);
 
-			@Override
-			public void acceptMethod(Member method, String dstName) {
-				if (method == null) throw new NullPointerException("null src method");
-				if (method.owner == null) throw new NullPointerException("null src method owner");
-				if (method.name == null) throw new NullPointerException("null src method name");
-				if (method.desc == null) throw new NullPointerException("null src method desc");
-				if (dstName == null) throw new NullPointerException("null dst name");
-
-				methodMap.put(method.owner+"/"+MemberInstance.getMethodId(method.name, method.desc), dstName);
-			}
+			if ((scanner.getAccess() & Opcodes.ACC_MODULE) != 0) return null; // special attribute for module-info.class, can't be a regular class
 
-			@Override
-			public void acceptMethodArg(Member method, int lvIndex, String dstName) {
-				if (method == null) throw new NullPointerException("null src method");
-				if (method.owner == null) throw new NullPointerException("null src method owner");
-				if (method.name == null) throw new NullPointerException("null src method name");
-				if (method.desc == null) throw new NullPointerException("null src method desc");
-				if (dstName == null) throw new NullPointerException("null dst name");
-
-				methodArgMap.put(method.owner+"/"+MemberInstance.getMethodId(method.name, method.desc)+lvIndex, dstName);
-			}
+			final String name = scanner.getClassName();
+			final int mrjVersion = entryName != null ? analyzeMrjVersion(entryName, name) : analyzeMrjVersion(file, name);
 
-			@Override
-			public void acceptMethodVar(Member method, int lvIndex, int startOpIdx, int asmIndex, String dstName) {
-				if (method == null) throw new NullPointerException("null src method");
-				if (method.owner == null) throw new NullPointerException("null src method owner");
-				if (method.name == null) throw new NullPointerException("null src method name");
-				if (method.desc == null) throw new NullPointerException("null src method desc");
-				if (dstName == null) throw new NullPointerException("null dst name");
-
-				methodVarMap.put(method.owner+"/"+MemberInstance.getMethodId(method.name, method.desc)+lvIndex, dstName);
-			}
+			final ClassInstance ret = new ClassInstance(this, false, tags, srcPath, null);
+			ClassVisitor cv = createAnalyzeVisitor(false, tags, name, mrjVersion, ret);
 
-			@Override
-			public void acceptField(Member field, String dstName) {
-				if (field == null) throw new NullPointerException("null src field");
-				if (field.owner == null) throw new NullPointerException("null src field owner");
-				if (field.name == null) throw new NullPointerException("null src field name");
-				if (field.desc == null && !ignoreFieldDesc) throw new NullPointerException("null src field desc");
-				if (dstName == null) throw new NullPointerException("null dst name");
-
-				fieldMap.put(field.owner+"/"+MemberInstance.getFieldId(field.name, field.desc, ignoreFieldDesc), dstName);
+			if (cv instanceof AnalyzeVisitor) { // no analyze visitor provider is interested in this class
+				scanner.accept(cv);
+			} else {
+				new ClassReader(scanner.readFully()).accept(cv, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES | ClassReader.SKIP_CODE);
 			}
-		};
 
-		for (IMappingProvider provider : mappingProviders) {
-			provider.load(acceptor);
+			return ret;
+		} catch (IOException e) {
+			throw new RuntimeException("error analyzing "+(entryName != null ? entryName : file)+" from "+srcPath, e);
 		}
 	}
 
-	private void checkClassMappings() {
-		// determine classes that map to the same target name, if there are any print duplicates and throw
-		Set<String> testSet = new HashSet<>(classMap.values());
+	private ClassVisitor createAnalyzeVisitor(boolean isInput, InputTag[] tags, String name, int mrjVersion, ClassInstance cls) {
+		ClassVisitor cv = new AnalyzeVisitor(mrjVersion, cls);
 
-		if (testSet.size() != classMap.size()) { // src->target is not a 1:1 mapping
-			Set<String> duplicates = new HashSet<>();
-
-			for (String name : classMap.values()) {
-				if (!testSet.remove(name)) {
-					duplicates.add(name);
-				}
-			}
+		for (int i = analyzeVisitors.size() - 1; i >= 0; i--) {
+			cv = analyzeVisitors.get(i).insertAnalyzeVisitor(isInput, mrjVersion, name, cv, tags);
+		}
 
-			logger.warn("non-unique class target name mappings:");
+		return cv;
+	}
 
-			for (String target : duplicates) {
-				StringBuilder sb = new StringBuilder();
-				sb.append("  [");
-				boolean first = true;
+	private static final class AnalyzeVisitor extends ClassVisitor {
+		AnalyzeVisitor(int mrjVersion, ClassInstance cls) {
+			super(Opcodes.ASM9);
 
-				for (Map.Entry<String, String> e : classMap.entrySet()) {
-					if (e.getValue().equals(target)) {
-						if (first) {
-							first = false;
-						} else {
-							sb.append(", ");
-						}
+			this.mrjVersion = mrjVersion;
+			this.cls = cls;
+		}
 
-						sb.append(e.getKey());
-					}
-				}
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+			cls.init(name, version, mrjVersion, signature, superName, access, interfaces);
+			super.visit(version, access, name, signature, superName, interfaces);
+		}
 
-				sb.append(String.format("] -> %s", target));
-				getLogger().warn(sb.toString());
-			}
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+			MemberInstance prev = cls.addMember(new MemberInstance(TrMember.MemberType.METHOD, cls, name, desc, access, cls.getMembers().size()));
+			if (prev != null) throw new RuntimeException(String.format("duplicate method %s/%s%s in inputs", cls.getName(), name, desc));
+
+			return super.visitMethod(access, name, desc, signature, exceptions);
+		}
 
-			throw new RuntimeException("duplicate class target name mappings detected");
+		@Override
+		public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+			MemberInstance prev = cls.addMember(new MemberInstance(TrMember.MemberType.FIELD, cls, name, desc, access, cls.getMembers().size()));
+			if (prev != null) throw new RuntimeException(String.format("duplicate field %s/%s;;%s in inputs", cls.getName(), name, desc));
+
+			return super.visitField(access, name, desc, signature, value);
 		}
+
+		private final int mrjVersion;
+		private final ClassInstance cls;
+	}
+
+	private void loadMappings() {
+		CompiledMappings mappings;
+
+		if (mappingProviders.isEmpty() && compiledMappings.size() == 1) { // share the pre-built mappings as-is
+			mappings = compiledMappings.get(0);
+			if (mappings == this.mappings) return;
+		} else {
+			mappings = CompiledMappings.compile(compiledMappings, mappingProviders, ignoreFieldDesc, logger);
+		}
+
+		this.mappings = mappings;
+		classMap = mappings.classMap;
+		methodMap = mappings.methodMap;
+		methodArgMap = mappings.methodArgMap;
+		methodVarMap = mappings.methodVarMap;
+		fieldMap = mappings.fieldMap;
 	}
 
 	private void merge(MrjState state) {
-		for (ClassInstance node : state.classes.values()) {
+		runParallel(state.classes.values(), minMergeBatchSize, node -> {
 			assert node.getSuperName() != null;
 
 			ClassInstance parent = state.getClass(node.getSuperName());
 
 			if (parent != null) {
 				node.parents.add(parent);
-				parent.children.add(node);
+				if (parent.tr == this) parent.children.add(node); // an overlay's base classes stay unmodified
 			}
 
 			for (String iface : node.getInterfaceNames0()) {
@@ -783,44 +1235,152 @@ public class TinyRemapper {
 
 				if (parent != null) {
 					node.parents.add(parent);
-					parent.children.add(node);
+					if (parent.tr == this) parent.children.add(node);
 				}
 			}
-		}
+		});
 	}
 
 	private void propagate(MrjState state) {
-		List<Future<?>> futures = new ArrayList<>();
-		List<Map.Entry<String, String>> tasks = new ArrayList<>();
-		int maxTasks = methodMap.size() / threadCount / 4;
+		runAll(createPropagationTasks(state));
+
+		if (base != null) propagateBaseNames(state);
+
+		handleConflicts(state);
+	}
+
+	/**
+	 * Apply the names of the base remapper's methods to the overlay's methods overriding them.
+	 *
+	 * <p>The base classes don't list overlay classes as their children, so the propagation within the base never
+	 * reached them. Each overlay method instead looks up the method it overrides from the closest base classes and
+	 * propagates that method's name within the overlay.
+	 */
+	private void propagateBaseNames(MrjState state) {
+		ClassVisitMarks visitedUp = new ClassVisitMarks();
+		ClassVisitMarks visitedDown = new ClassVisitMarks();
+		List<ClassInstance> baseParents = new ArrayList<>();
+		Set<ClassInstance> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<ClassInstance> queue = new ArrayDeque<>();
+
+		for (ClassInstance cls : state.classes.values()) {
+			// find the base classes directly extended by cls or its overlay super classes
+
+			ClassInstance node = cls;
+
+			do {
+				for (ClassInstance parent : node.parents) {
+					if (!visited.add(parent)) continue;
+
+					if (parent.tr == this) {
+						queue.add(parent);
+					} else {
+						baseParents.add(parent);
+					}
+				}
+			} while ((node = queue.poll()) != null);
+
+			if (!baseParents.isEmpty()) {
+				for (MemberInstance member : cls.getMembers()) {
+					if (!member.isMethod() || (member.access & (Opcodes.ACC_STATIC | Opcodes.ACC_PRIVATE)) != 0 || member.name.startsWith("<")) continue;
 
-		for (Map.Entry<String, String> entry : methodMap.entrySet()) {
-			tasks.add(entry);
+					for (ClassInstance parent : baseParents) {
+						MemberInstance baseMember = parent.resolve(MemberType.METHOD, member.name, member.desc);
+						String newName;
 
-			if (tasks.size() >= maxTasks) {
-				futures.add(threadPool.submit(new Propagation(state, TrMember.MemberType.METHOD, tasks)));
-				tasks.clear();
+						if (baseMember != null
+								&& (baseMember.access & (Opcodes.ACC_STATIC | Opcodes.ACC_PRIVATE)) == 0
+								&& (newName = baseMember.getNewMappedName()) != null) {
+							String originatingCls = baseMember.newNameOriginatingCls != null ? baseMember.newNameOriginatingCls : baseMember.cls.getName();
+							Propagator.propagate(member, originatingCls, newName, visitedUp, visitedDown);
+						}
+					}
+				}
+
+				baseParents.clear();
 			}
+
+			visited.clear();
 		}
+	}
 
-		futures.add(threadPool.submit(new Propagation(state, TrMember.MemberType.METHOD, tasks)));
-		tasks.clear();
+	/**
+	 * Group the member mappings by the connected hierarchy component of their owner and batch them into tasks.
+	 *
+	 * <p>Propagating a member never leaves the hierarchy component of its class, so tasks for distinct components
+	 * don't modify the same classes or members. Shared super classes and interfaces can connect most of a large
+	 * hierarchy into one component, those above the target task size get split into slices again. This is safe since
+	 * members are renamed atomically and conflicting names get collected concurrently. The components are scheduled
+	 * largest first for balancing the load across the pool's threads, small components get batched together to limit
+	 * the task count.
+	 */
+	private List<Propagation> createPropagationTasks(MrjState state) {
+		Map<ClassInstance, Propagation> components = new IdentityHashMap<>();
+		List<Propagation> componentList = new ArrayList<>();
 
-		for (Map.Entry<String, String> entry : fieldMap.entrySet()) {
-			tasks.add(entry);
+		addPropagationEntries(state, TrMember.MemberType.METHOD, methodMap, components, componentList);
+		addPropagationEntries(state, TrMember.MemberType.FIELD, fieldMap, components, componentList);
+
+		int totalSize = 0;
+
+		for (Propagation component : componentList) {
+			totalSize += component.size();
+		}
 
-			if (tasks.size() >= maxTasks) {
-				futures.add(threadPool.submit(new Propagation(state, TrMember.MemberType.FIELD, tasks)));
-				tasks.clear();
+		int targetSize = Math.max(totalSize / threadCount / 4, 1);
+		componentList.sort((a, b) -> Integer.compare(b.size(), a.size()));
+		List<Propagation> ret = new ArrayList<>();
+		Propagation batch = null;
+
+		for (Propagation component : componentList) {
+			if (component.size() >= targetSize) {
+				for (int start = 0; start < component.size(); start += targetSize) {
+					ret.add(component.slice(start, start + targetSize));
+				}
+			} else {
+				if (batch == null) {
+					batch = new Propagation(state);
+					ret.add(batch);
+				}
+
+				batch.addAll(component);
+				if (batch.size() >= targetSize) batch = null;
 			}
 		}
 
-		futures.add(threadPool.submit(new Propagation(state, TrMember.MemberType.FIELD, tasks)));
-		tasks.clear();
+		return ret;
+	}
 
-		waitForAll(futures);
+	private void addPropagationEntries(MrjState state, MemberType type, MappingTable mappings,
+			Map<ClassInstance, Propagation> components, List<Propagation> componentList) {
+		Deque<ClassInstance> queue = new ArrayDeque<>();
 
-		handleConflicts(state);
+		for (MappingTable.Entry entry : mappings.entries()) {
+			ClassInstance cls = state.getClass(entry.owner);
+			if (cls == null) continue; // not available for this Side
+			if (cls.tr != this) continue; // class from an overlay's base, already propagated there
+
+			Propagation component = components.get(cls);
+
+			if (component == null) { // new component, assign it to all connected classes
+				component = new Propagation(state);
+				componentList.add(component);
+				components.put(cls, component);
+				queue.add(cls);
+
+				while ((cls = queue.poll()) != null) {
+					for (ClassInstance parent : cls.parents) {
+						if (components.putIfAbsent(parent, component) == null) queue.add(parent);
+					}
+
+					for (ClassInstance child : cls.children) {
+						if (components.putIfAbsent(child, component) == null) queue.add(child);
+					}
+				}
+			}
+
+			component.add(type, entry);
+		}
 	}
 
 	private void handleConflicts(MrjState state) {
@@ -893,15 +1453,15 @@ public class TinyRemapper {
 				getLogger().warn("  %s %s %s (%s) -> %s", member.cls.getName(), member.type.name(), member.name, member.desc, names);
 
 				if (ignoreConflicts) {
-					Map<String, String> mappings = member.type == TrMember.MemberType.METHOD ? methodMap : fieldMap;
-					String mappingName = mappings.get(member.cls.getName()+"/"+member.getId());
+					MappingTable mappings = member.type == TrMember.MemberType.METHOD ? methodMap : fieldMap;
+					String mappingName = mappings.get(member.cls.getName(), member.name, member.desc, -1);
 
 					if (mappingName == null) { // no direct mapping match, try parents
 						Queue<ClassInstance> queue = new ArrayDeque<>(member.cls.parents);
 						ClassInstance cls;
 
 						while ((cls = queue.poll()) != null) {
-							mappingName = mappings.get(cls.getName()+"/"+member.getId());
+							mappingName = mappings.get(cls.getName(), member.name, member.desc, -1);
 							if (mappingName != null) break;
 
 							queue.addAll(cls.parents);
@@ -930,26 +1490,104 @@ public class TinyRemapper {
 	}
 
 	public void apply(final BiConsumer<String, byte[]> outputConsumer, InputTag... inputTags) {
+		join(applyAsync(outputConsumer, inputTags));
+	}
+
+	public CompletableFuture<?> applyAsync(final BiConsumer<String, byte[]> outputConsumer) {
+		return applyAsync(outputConsumer, (InputTag[]) null);
+	}
+
+	/**
+	 * Asynchronous variant of {@link #apply(BiConsumer, InputTag...)}, returns without waiting for any processing.
+	 *
+	 * <p>The processing starts once all pending asynchronous reads and earlier apply invocations completed. Class
+	 * path setup, merging and propagation run as a single task on the remapper's executor, followed by one task per
+	 * class which passes the class to the consumer right after transforming it. No thread waits for the transformation
+	 * of the classes.
+	 *
+	 * @return Future completing after the last class has been passed to the consumer.
+	 */
+	public CompletableFuture<?> applyAsync(final BiConsumer<String, byte[]> outputConsumer, InputTag... inputTags) {
 		// We expect apply() to be invoked only once if the user didn't request any input tags. Invoking it multiple
 		// times still works with keepInputData=true, but wastes some time by redoing most processing.
 		// With input tags the first apply invocation computes the entire output, but yields only what matches the given
 		// input tags. The output data is being kept for eventual further apply() outputs, only finish() clears it.
 		boolean hasInputTags = !singleInputTags.get().isEmpty();
+		boolean bufferOutput = hasInputTags || incremental; // incremental mode serves unchanged classes from the buffer
+
+		return apply((cls, data) -> {
+			if (inputTags == null || !bufferOutput || cls.hasAnyInputTag(inputTags)) {
+				outputConsumer.accept(getOutputName(cls), data);
+			}
+		}, bufferOutput);
+	}
+
+	/**
+	 * Remap all input classes and pass each class to the consumers for its input tags as soon as it got transformed.
+	 *
+	 * <p>This is the streaming alternative to invoking {@link #apply(BiConsumer, InputTag...)} once per input tag. The
+	 * output isn't buffered, only the classes currently being transformed are being held in memory. Every class is
+	 * transformed once and passed to each distinct consumer mapped for one of its tags, classes without tags are passed
+	 * to all consumers. The consumers may be invoked concurrently.
+	 *
+	 * <p>As with untagged output, invoking apply again afterwards requires keepInputData.
+	 *
+	 * @param outputConsumers Output consumer for each input tag of interest.
+	 */
+	public void apply(Map<InputTag, ? extends BiConsumer<String, byte[]>> outputConsumers) {
+		Collection<? extends BiConsumer<String, byte[]>> allConsumers = outputConsumers.values().stream().distinct().collect(Collectors.toList());
 
-		synchronized (this) { // guard against concurrent apply invocations
-			refresh();
+		join(apply((cls, data) -> {
+			InputTag[] tags = cls.getInputTags();
+			String name = getOutputName(cls);
 
-			if (outputBuffer == null) { // first (inputTags present) or full (no input tags) output invocation, process everything but don't output if input tags are present
-				BiConsumer<ClassInstance, byte[]> immediateOutputConsumer;
+			if (tags == null) {
+				for (BiConsumer<String, byte[]> consumer : allConsumers) {
+					consumer.accept(name, data);
+				}
 
-				if (fixPackageAccess || hasInputTags) { // need re-processing or output buffering for repeated applies
-					outputBuffer = new ConcurrentHashMap<>();
-					immediateOutputConsumer = outputBuffer::put;
-				} else {
-					immediateOutputConsumer = (cls, data) -> outputConsumer.accept(ClassInstance.getMrjName(cls.getContext().remapper.map(cls.getName()), cls.getMrjVersion()), data);
+				return;
+			}
+
+			tagLoop: for (int i = 0; i < tags.length; i++) {
+				BiConsumer<String, byte[]> consumer = outputConsumers.get(tags[i]);
+				if (consumer == null) continue;
+
+				for (int j = 0; j < i; j++) {
+					if (outputConsumers.get(tags[j]) == consumer) continue tagLoop; // already passed to this consumer
 				}
 
-				List<Future<?>> futures = new ArrayList<>();
+				consumer.accept(name, data);
+			}
+		}, incremental));
+	}
+
+	private synchronized CompletableFuture<Void> apply(BiConsumer<ClassInstance, byte[]> output, boolean bufferOutput) {
+		// queue behind the pending reads and the previous apply invocation, apply invocations must not overlap
+		// reads started afterwards are left to the next apply
+		List<CompletableFuture<List<ClassInstance>>> reads = getPendingReads();
+		CompletableFuture<Void> ret = CompletableFuture.allOf(CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])), lastApply.handle((res, exc) -> null))
+				.thenComposeAsync(ignore -> transform(reads, output, bufferOutput), threadPool);
+		lastApply = ret;
+
+		return ret;
+	}
+
+	private CompletableFuture<Void> transform(List<CompletableFuture<List<ClassInstance>>> reads,
+			BiConsumer<ClassInstance, byte[]> output, boolean bufferOutput) {
+		List<ClassInstance> classes;
+		BiConsumer<ClassInstance, byte[]> immediateOutputConsumer;
+		OutputBuffer bufferedOutput; // output to pass on after transforming, null if the classes are output directly
+		boolean fixAccess = false;
+		boolean lateAccessFixes = false;
+		boolean fullOutput;
+
+		synchronized (this) {
+			refresh(reads);
+			fullOutput = outputBuffer == null;
+
+			if (fullOutput) { // first (buffered) or full (unbuffered) output invocation, process everything but only output directly if not buffering
+				classes = new ArrayList<>();
 
 				for (MrjState state : mrjStates.values()) {
 					mrjRefresh(state);
@@ -957,60 +1595,164 @@ public class TinyRemapper {
 					for (final ClassInstance cls : state.classes.values()) {
 						if (!cls.isInput) continue;
 
-						if (cls.data == null) {
-							if (!hasInputTags && !keepInputData) throw new IllegalStateException("invoking apply multiple times without input tags or hasInputData");
+						if (!cls.hasData()) {
+							if (!bufferOutput && !keepInputData) throw new IllegalStateException("invoking apply multiple times without input tags or hasInputData");
 							throw new IllegalStateException("data for input class " + cls + " is missing?!");
 						}
 
-						futures.add(threadPool.submit(() -> immediateOutputConsumer.accept(cls, apply(cls))));
+						classes.add(cls);
 					}
 				}
 
-				waitForAll(futures);
+				// determine the access fixes up front, so every class can be fixed while transforming it the only time
 
-				boolean needsFixes = !classesToMakePublic.isEmpty() || !membersToMakePublic.isEmpty();
+				if (!fixPackageAccess) {
+					// no access fixes
+				} else if (preApplyVisitors.isEmpty()) {
+					long startTime = System.nanoTime();
+					analyzeAccess(classes);
+					if (metrics != null) metrics.phaseCompleted(RemapperMetrics.Phase.ACCESS_ANALYSIS, null, classes.size(), System.nanoTime() - startTime);
 
-				if (fixPackageAccess) {
-					if (needsFixes) {
+					if (!classesToMakePublic.isEmpty() || !membersToMakePublic.isEmpty()) {
 						getLogger().warn("Fixing access for %d classes and %d members.", classesToMakePublic.size(), membersToMakePublic.size());
+						fixAccess = true;
 					}
+				} else { // apply visitors may add references, check the actual output and fix it after transforming everything
+					lateAccessFixes = true;
+				}
 
-					for (Map.Entry<ClassInstance, byte[]> entry : outputBuffer.entrySet()) {
-						ClassInstance cls = entry.getKey();
-						byte[] data = entry.getValue();
+				if (bufferOutput) { // output buffering for repeated applies
+					outputBuffer = new OutputBuffer(outputBufferMemoryLimit);
+					bufferedOutput = outputBuffer;
+					immediateOutputConsumer = outputBuffer::put;
+				} else if (lateAccessFixes) {
+					bufferedOutput = new OutputBuffer(outputBufferMemoryLimit);
+					immediateOutputConsumer = bufferedOutput::put;
+				} else {
+					bufferedOutput = null;
+					immediateOutputConsumer = output;
+				}
+			} else { // incremental update, only transform the changed classes again
+				classes = new ArrayList<>(changedClasses);
+				bufferedOutput = outputBuffer;
+				immediateOutputConsumer = outputBuffer::put;
+			}
 
-						if (needsFixes) {
-							data = fixClass(cls, data);
-						}
+			changedClasses.clear();
+		}
 
-						if (hasInputTags) {
-							entry.setValue(data);
-						} else {
-							outputConsumer.accept(ClassInstance.getMrjName(cls.getContext().remapper.map(cls.getName()), cls.getMrjVersion()), data);
-						}
-					}
+		Set<String> renamedMembers = !fixAccess && canCopyUnchangedClasses() ? getRenamedMemberNames() : null;
+		boolean finalLateAccessFixes = lateAccessFixes;
+		long startTime = System.nanoTime();
 
-					if (!hasInputTags) outputBuffer = null; // don't expect repeat invocations
+		return transform(classes, fixAccess, renamedMembers, immediateOutputConsumer).thenRun(() -> {
+			synchronized (this) {
+				if (metrics != null && !classes.isEmpty()) {
+					metrics.phaseCompleted(RemapperMetrics.Phase.APPLY, null, classes.size(), System.nanoTime() - startTime);
+				}
+
+				if (!fullOutput) {
+					// access fixes are being determined by full outputs only
+				} else if (fixPackageAccess) {
+					if (finalLateAccessFixes && (!classesToMakePublic.isEmpty() || !membersToMakePublic.isEmpty())) {
+						getLogger().warn("Fixing access for %d classes and %d members.", classesToMakePublic.size(), membersToMakePublic.size());
+						fixAccess(bufferedOutput);
+					}
 
 					classesToMakePublic.clear();
 					membersToMakePublic.clear();
-				} else if (needsFixes) {
+				} else if (!classesToMakePublic.isEmpty() || !membersToMakePublic.isEmpty()) {
 					throw new RuntimeException(String.format("%d classes and %d members need access fixes", classesToMakePublic.size(), membersToMakePublic.size()));
 				}
+
+				assert !bufferOutput || outputBuffer != null;
+
+				if (metrics != null) {
+					metrics.resolveCacheStats(resolveCacheHits.sumThenReset(), resolveCacheMisses.sumThenReset(),
+							resolveCache != null ? resolveCache.evictions.sumThenReset() : 0);
+				}
 			}
 
-			assert hasInputTags == (outputBuffer != null);
+			// pass on the buffered output without holding the monitor, the consumer may take arbitrarily long or wait for
+			// other threads using this remapper, further applies still wait for this via lastApply
+			if (bufferedOutput != null) { // partial output selected by input tags, full output from the incremental buffer or access fixed output
+				bufferedOutput.forEach(output);
+				if (fullOutput && !bufferOutput) bufferedOutput.close(); // temporary buffer for the access fixes
+			}
+		});
+	}
 
-			if (outputBuffer != null) { // partial output selected by input tags
-				for (Map.Entry<ClassInstance, byte[]> entry : outputBuffer.entrySet()) {
-					ClassInstance cls = entry.getKey();
+	/**
+	 * Transform the classes and pass them to the output with at most maxPendingOutputs classes in flight.
+	 *
+	 * <p>Each of the up to maxPendingOutputs tasks handles one class at a time and then submits itself again for the
+	 * next class, which keeps the executor's queue short and lets other work sharing the executor interleave.
+	 */
+	private CompletableFuture<Void> transform(List<ClassInstance> classes, boolean fixAccess, /* @Nullable */ Set<String> renamedMembers,
+			BiConsumer<ClassInstance, byte[]> output) {
+		CompletableFuture<Void> ret = new CompletableFuture<>();
 
-					if (inputTags == null || cls.hasAnyInputTag(inputTags)) {
-						outputConsumer.accept(ClassInstance.getMrjName(cls.getContext().remapper.map(cls.getName()), cls.getMrjVersion()), entry.getValue());
-					}
+		if (classes.isEmpty()) {
+			ret.complete(null);
+			return ret;
+		}
+
+		AtomicInteger nextIndex = new AtomicInteger();
+		AtomicInteger remaining = new AtomicInteger(classes.size());
+
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				int index = nextIndex.getAndIncrement();
+				if (index >= classes.size() || ret.isDone()) return; // done or another class failed
+
+				try {
+					ClassInstance cls = classes.get(index);
+					output.accept(cls, apply(cls, fixAccess, renamedMembers));
+				} catch (Throwable t) {
+					ret.completeExceptionally(t);
+					return;
+				}
+
+				if (remaining.decrementAndGet() == 0) {
+					ret.complete(null);
+				} else if (nextIndex.get() < classes.size()) {
+					threadPool.execute(this);
 				}
 			}
+		};
+
+		for (int i = Math.min(maxPendingOutputs, classes.size()); i > 0; i--) {
+			threadPool.execute(task);
 		}
+
+		return ret;
+	}
+
+	/**
+	 * Wait for a future, rethrowing the original exception if it failed.
+	 */
+	private static void join(CompletableFuture<?> future) {
+		try {
+			future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+
+			throw e;
+		}
+	}
+
+	private void discardOutputBuffer() {
+		if (outputBuffer != null) {
+			outputBuffer.close();
+			outputBuffer = null;
+		}
+	}
+
+	private static String getOutputName(ClassInstance cls) {
+		return ClassInstance.getMrjName(cls.getContext().remapper.map(cls.getName()), cls.getMrjVersion());
 	}
 
 	/**
@@ -1020,17 +1762,27 @@ public class TinyRemapper {
 	 * @param newVersions the new versions that need to be added in to {@code mrjClasses}
 	 */
 	private void fixMrjClasses(Set<Integer> newVersions) {
-		// ensure the new version is added from lowest to highest
-		for (int newVersion: newVersions.stream().sorted().collect(Collectors.toList())) {
+		Set<Integer> oldVersions = new HashSet<>(mrjStates.keySet());
+		List<MrjState> newStates = new ArrayList<>(newVersions.size());
+
+		for (int newVersion : newVersions) {
 			MrjState newState = new MrjState(this, newVersion);
+			if (base != null) newState.baseState = base.getBaseState(newVersion);
 
 			if (mrjStates.put(newVersion, newState) != null) {
 				throw new RuntimeException("internal error: duplicate versions in mrjClasses");
 			}
 
+			newStates.add(newState);
+		}
+
+		// populate the new states in parallel, each one gets copies of the classes in the closest lower pre-existing
+		// version, which matches copying from the closest lower version including other new ones
+
+		runParallel(newStates, 1, newState -> {
 			// find the fromVersion that just lower the the toVersion
-			Optional<Integer> fromVersion = mrjStates.keySet().stream()
-					.filter(v -> v < newVersion).max(Integer::compare);
+			Optional<Integer> fromVersion = oldVersions.stream()
+					.filter(v -> v < newState.version).max(Integer::compare);
 
 			if (fromVersion.isPresent()) {
 				Map<String, ClassInstance> fromClasses = mrjStates.get(fromVersion.get()).classes;
@@ -1039,58 +1791,206 @@ public class TinyRemapper {
 					addClass(cls.constructMrjCopy(newState), newState.classes, false);
 				}
 			}
+		});
+	}
+
+	/**
+	 * Get the state an overlay's state for the supplied MRJ version falls back to, the one with the closest lower or
+	 * equal version.
+	 */
+	private MrjState getBaseState(int version) {
+		MrjState ret = defaultState;
+
+		for (MrjState state : mrjStates.values()) {
+			if (state.version <= version && state.version > ret.version) ret = state;
 		}
+
+		return ret;
 	}
 
 	private void refresh() {
-		if (!dirty) {
-			assert pendingReads.isEmpty();
+		refresh(getPendingReads());
+	}
+
+	private List<CompletableFuture<List<ClassInstance>>> getPendingReads() {
+		synchronized (pendingReads) {
+			return new ArrayList<>(pendingReads);
+		}
+	}
+
+	/**
+	 * Bring the states up to date with the supplied reads, which have to be registered in pendingReads.
+	 *
+	 * <p>Reads consumed by an earlier refresh are skipped, reads not supplied stay pending for the next refresh.
+	 */
+	private void refresh(List<CompletableFuture<List<ClassInstance>>> reads) {
+		boolean readAny = false;
+
+		for (CompletableFuture<List<ClassInstance>> read : reads) {
+			synchronized (pendingReads) {
+				if (!pendingReads.contains(read)) continue; // already consumed
+			}
+
+			for (ClassInstance cls : read.join()) {
+				addClass(cls, readClasses, true);
+			}
+
+			synchronized (pendingReads) {
+				pendingReads.remove(read);
+			}
+
+			readAny = true;
+		}
+
+		if (!dirty && !readAny) {
 			assert readClasses.isEmpty();
 
 			return;
 		}
 
-		outputBuffer = null;
+		if (readAny) {
+			for (MrjState state : mrjStates.values()) {
+				state.dirty = true;
+			}
+		}
+
+		if (incremental && !defaultState.classes.isEmpty()) {
+			if (outputBuffer != null && updateIncrementally()) {
+				// all states were fully processed by the previous apply and aren't affected by the changes
+				for (MrjState state : mrjStates.values()) {
+					state.dirty = false;
+				}
 
-		if (!pendingReads.isEmpty()) {
-			for (CompletableFuture<?> future : pendingReads) {
-				future.join();
+				dirty = false;
+
+				return;
 			}
 
-			pendingReads.clear();
+			if (!readClasses.isEmpty()) resetStates();
 		}
 
+		discardOutputBuffer();
+
 		if (!readClasses.isEmpty()) {
+			long startTime = System.nanoTime();
+
 			// fix any new adding MRJ versions
 			Set<Integer> versions = readClasses.values().stream().map(ClassInstance::getMrjVersion).collect(Collectors.toSet());
 			versions.removeAll(mrjStates.keySet());
 			fixMrjClasses(versions);
 
-			for (ClassInstance cls : readClasses.values()) {
-				// TODO: this might be able to optimize, any suggestion?
-				int clsVersion = cls.getMrjVersion();
-				MrjState state = mrjStates.get(clsVersion);
-				cls.setContext(state);
-				addClass(cls, state.classes, false);
-
-				for (int version: mrjStates.keySet()) {
-					if (version > clsVersion) {
-						MrjState newState = mrjStates.get(version);
-						addClass(cls.constructMrjCopy(newState), newState.classes, false);
+			// add the classes to their own version's state and copies to all higher versions' states, each state is
+			// being populated by its own task in the same order as the classes would be added sequentially
+			List<ClassInstance> classes = new ArrayList<>(readClasses.values());
+
+			runParallel(mrjStates.values(), 1, state -> {
+				for (ClassInstance cls : classes) {
+					int clsVersion = cls.getMrjVersion();
+
+					if (clsVersion == state.version) {
+						cls.setContext(state);
+						addClass(cls, state.classes, false);
+					} else if (clsVersion < state.version) {
+						addClass(cls.constructMrjCopy(state), state.classes, false);
 					}
 				}
-			}
+			});
 
 			readClasses.clear();
+
+			if (metrics != null) metrics.phaseCompleted(RemapperMetrics.Phase.MRJ_SETUP, null, classes.size(), System.nanoTime() - startTime);
 		}
 
+		long startTime = System.nanoTime();
 		loadMappings();
-		checkClassMappings();
 
-		assert dirty;
+		if (metrics != null) {
+			metrics.phaseCompleted(RemapperMetrics.Phase.LOAD_MAPPINGS, null, classMap.size() + methodMap.size() + fieldMap.size(), System.nanoTime() - startTime);
+		}
+
 		dirty = false;
 	}
 
+	/**
+	 * Transfer the updated data of classes read again into their existing instances if that is possible without
+	 * invalidating the merge and propagation results.
+	 *
+	 * @return whether all read classes have been handled, otherwise nothing will have been changed.
+	 */
+	private boolean updateIncrementally() {
+		if (fixPackageAccess || !stateProcessors.isEmpty()) return false;
+
+		Map<ClassInstance, ClassInstance> updates = new IdentityHashMap<>();
+
+		for (ClassInstance cls : readClasses.values()) {
+			MrjState state = mrjStates.get(cls.getMrjVersion());
+			ClassInstance prev = state != null ? state.getClass(cls.getName()) : null;
+
+			if (prev == null || prev.isMrjCopy() || !prev.hasSameShape(cls)) {
+				return false;
+			} else if (cls.isInput && !prev.hasSameData(cls)) {
+				updates.put(prev, cls);
+			}
+		}
+
+		for (ClassInstance cls : readClasses.values()) {
+			ClassInstance prev = mrjStates.get(cls.getMrjVersion()).getClass(cls.getName());
+			prev.addInputTags(cls.getInputTags());
+		}
+
+		readClasses.clear();
+
+		for (Map.Entry<ClassInstance, ClassInstance> entry : updates.entrySet()) {
+			ClassInstance cls = entry.getKey();
+			cls.copyData(entry.getValue());
+			changedClasses.add(cls);
+
+			// update the copies in higher MRJ versions as well
+
+			for (MrjState state : mrjStates.values()) {
+				if (state.version <= cls.getMrjVersion()) continue;
+
+				ClassInstance copy = state.getClass(cls.getName());
+				if (copy != null && copy.getMrjOrigin() == cls) copy.copyData(cls);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Move all previously processed classes back to readClasses, without the ones being replaced by newly read
+	 * versions, and reset them to process everything again.
+	 */
+	private void resetStates() {
+		for (MrjState state : mrjStates.values()) {
+			for (ClassInstance cls : state.classes.values()) {
+				if (cls.isMrjCopy()) continue;
+
+				String name = ClassInstance.getMrjName(cls.getName(), cls.getMrjVersion());
+				ClassInstance replacement = readClasses.get(name);
+
+				if (replacement == null || !replacement.isInput && cls.isInput) {
+					if (replacement != null) cls.addInputTags(replacement.getInputTags());
+
+					cls.resetState();
+					readClasses.put(name, cls);
+				} else {
+					replacement.addInputTags(cls.getInputTags());
+				}
+			}
+		}
+
+		mrjStates.clear();
+		defaultState.classes.clear();
+		defaultState.dirty = true;
+		mrjStates.put(defaultState.version, defaultState);
+		conflicts.clear();
+		changedClasses.clear();
+		renamedMemberNames = null;
+		if (resolveCache != null) resolveCache.clear();
+	}
+
 	private void mrjRefresh(MrjState state) {
 		if (!state.dirty) {
 			return;
@@ -1099,23 +1999,89 @@ public class TinyRemapper {
 		assert new HashSet<>(state.classes.values()).size() == state.classes.size();
 		assert state.classes.values().stream().map(ClassInstance::getName).distinct().count() == state.classes.size();
 
+		long startTime = System.nanoTime();
 		merge(state);
+		long mergeTime = System.nanoTime();
+
+		if (precomputeResolution && resolveCache == null) { // evictions would invalidate the completeness
+			runParallel(state.classes.values(), minResolutionBatchSize, ClassInstance::precomputeResolution);
+		}
+
+		long resolutionTime = System.nanoTime();
 		propagate(state);
 
+		if (metrics != null) {
+			long time = System.nanoTime();
+			metrics.phaseCompleted(RemapperMetrics.Phase.MERGE, state, state.classes.size(), mergeTime - startTime);
+			if (precomputeResolution && resolveCache == null) metrics.phaseCompleted(RemapperMetrics.Phase.PRECOMPUTE_RESOLUTION, state, state.classes.size(), resolutionTime - mergeTime);
+			metrics.phaseCompleted(RemapperMetrics.Phase.PROPAGATE, state, methodMap.size() + fieldMap.size(), time - resolutionTime);
+		}
+
 		for (StateProcessor processor : stateProcessors) {
+			startTime = System.nanoTime();
 			processor.process(state);
+			if (metrics != null) metrics.stateProcessorCompleted(processor, state, System.nanoTime() - startTime);
 		}
 
 		state.dirty = false;
+		renamedMemberNames = null;
 	}
 
-	private byte[] apply(final ClassInstance cls) {
-		ClassReader reader = new ClassReader(cls.data);
+	/**
+	 * Run the package access checks for the supplied classes without producing any output.
+	 *
+	 * <p>This populates classesToMakePublic and membersToMakePublic ahead of the actual transformation. Only the
+	 * referenced types and members get checked, nothing is remapped and debug information and frames are skipped.
+	 * Apply visitors don't run, so this is only usable without pre-apply visitors adding further references.
+	 */
+	private void analyzeAccess(List<ClassInstance> classes) {
+		runParallel(classes, minAnalyzeBatchSize, cls -> {
+			ClassVisitor visitor = PackageAccessChecker.createScanner(cls.getContext().remapper);
+			new ClassReader(cls.getData()).accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		});
+	}
+
+	/**
+	 * Apply the access fixes to already transformed classes, only rewriting the classes needing any.
+	 */
+	private void fixAccess(OutputBuffer buffer) {
+		buffer.forEach((cls, data) -> {
+			ClassWriter writer = new ClassWriter(0);
+			ClassVisitor visitor = createAccessFixVisitor(cls, writer);
+			if (visitor == writer) return; // no fixes for cls
+
+			new ClassReader(data).accept(visitor, 0);
+			buffer.put(cls, writer.toByteArray());
+		});
+	}
+
+	/**
+	 * Transform a single class.
+	 *
+	 * @param renamedMembers original names of all renamed members if unaffected classes may be copied as-is, see
+	 * {@link #canCopyUnchangedClasses}, null otherwise.
+	 */
+	private byte[] apply(final ClassInstance cls, boolean fixAccess, /* @Nullable */ Set<String> renamedMembers) {
+		long startTime = metrics != null ? System.nanoTime() : 0;
+		byte[] data = cls.getData();
+		ClassReader reader = new ClassReader(data);
+
+		if (renamedMembers != null && !isAffected(reader, data, cls.getContext().remapper, renamedMembers)) {
+			if (!keepInputData) cls.setData(null);
+			if (metrics != null) metrics.classApplied(cls, data.length, System.nanoTime() - startTime);
+
+			return data;
+		}
+
 		ClassWriter writer = new ClassWriter(0);
 		int flags = removeFrames ? ClassReader.SKIP_FRAMES : ClassReader.EXPAND_FRAMES;
 
 		ClassVisitor visitor = writer;
 
+		if (fixAccess) {
+			visitor = createAccessFixVisitor(cls, visitor);
+		}
+
 		if (check) {
 			visitor = new CheckClassAdapter(visitor);
 		}
@@ -1124,8 +2090,9 @@ public class TinyRemapper {
 			visitor = postApplyVisitors.get(i).insertApplyVisitor(cls, visitor, cls.getInputTags());
 		}
 
+		// with fixPackageAccess the checks already ran in analyzeAccess unless pre-apply visitors require checking the output
 		visitor = new AsmClassRemapper(visitor, cls.getContext().remapper, rebuildSourceFilenames,
-				checkPackageAccess, skipLocalMapping, renameInvalidLocals, invalidLvNamePattern, inferNameFromSameLvIndex);
+				checkPackageAccess && (!fixPackageAccess || !preApplyVisitors.isEmpty()), skipLocalMapping, renameInvalidLocals, invalidLvNamePattern, inferNameFromSameLvIndex);
 
 		for (int i = preApplyVisitors.size() - 1; i >= 0; i--) {
 			visitor = preApplyVisitors.get(i).insertApplyVisitor(cls, visitor, cls.getInputTags());
@@ -1135,9 +2102,105 @@ public class TinyRemapper {
 
 		// TODO: compute frames (-Xverify:all -XX:-FailOverToOldVerifier)
 
-		if (!keepInputData) cls.data = null;
+		if (!keepInputData) cls.setData(null);
 
-		return writer.toByteArray();
+		byte[] ret = writer.toByteArray();
+		if (metrics != null) metrics.classApplied(cls, ret.length, System.nanoTime() - startTime);
+
+		return ret;
+	}
+
+	/**
+	 * Determine whether transforming classes may leave unaffected classes unchanged.
+	 *
+	 * <p>Without mappings for the referenced classes and members the transformation only reproduces the input, unless
+	 * it also processes local variables, frames or source file names, fixes or checks access, generates bridges or
+	 * involves extra visitors and remappers.
+	 */
+	private boolean canCopyUnchangedClasses() {
+		return preApplyVisitors.isEmpty() && postApplyVisitors.isEmpty()
+				&& extraRemapper == null
+				&& skipLocalMapping && !renameInvalidLocals
+				&& !removeFrames
+				&& !rebuildSourceFilenames
+				&& !checkPackageAccess
+				&& propagateBridges != LinkedMethodPropagation.COMPATIBLE
+				&& propagateRecordComponents != LinkedMethodPropagation.COMPATIBLE
+				&& !check;
+	}
+
+	/**
+	 * Get the original names of all members with a new name, including the base remapper's for an overlay.
+	 */
+	private synchronized Set<String> getRenamedMemberNames() {
+		if (renamedMemberNames == null) {
+			Set<String> ret = new HashSet<>();
+
+			for (MrjState state : mrjStates.values()) {
+				mrjRefresh(state);
+
+				for (ClassInstance cls : state.classes.values()) {
+					for (MemberInstance member : cls.getMembers()) {
+						if (member.getNewName() != null) ret.add(member.name);
+					}
+				}
+			}
+
+			if (base != null) ret.addAll(base.getRenamedMemberNames());
+
+			renamedMemberNames = ret;
+		}
+
+		return renamedMemberNames;
+	}
+
+	/**
+	 * Determine whether transforming a class may change it by scanning its constant pool.
+	 *
+	 * <p>All names, descriptors and signatures within a class are constant pool UTF8 entries. The class is affected if
+	 * one of them may reference a mapped class or equals the name of any renamed member, regardless of whether it is
+	 * actually used as such. False positives only cost the regular transformation.
+	 */
+	private static boolean isAffected(ClassReader reader, byte[] data, AsmRemapper remapper, Set<String> renamedMembers) {
+		char[] buf = new char[reader.getMaxStringLength()];
+
+		for (int i = 1, max = reader.getItemCount(); i < max; i++) {
+			int offset = reader.getItem(i);
+			if (offset == 0 || data[offset - 1] != 1) continue; // not a CONSTANT_Utf8 entry or unused slot after long/double
+
+			String s = readUtf8(data, offset, buf);
+
+			if (renamedMembers.contains(s)
+					|| remapper.tr.classMap.get(s) != null
+					|| remapper.mayReferenceMappedClass(s, true)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Decode the modified UTF-8 string with its length at offset, like ClassReader does internally.
+	 */
+	private static String readUtf8(byte[] data, int offset, char[] buf) {
+		int pos = offset + 2;
+		int end = pos + ((data[offset] & 0xff) << 8 | data[offset + 1] & 0xff);
+		int len = 0;
+
+		while (pos < end) {
+			int b = data[pos++];
+
+			if ((b & 0x80) == 0) {
+				buf[len++] = (char) (b & 0x7f);
+			} else if ((b & 0xe0) == 0xc0) {
+				buf[len++] = (char) (((b & 0x1f) << 6) + (data[pos++] & 0x3f));
+			} else {
+				buf[len++] = (char) (((b & 0xf) << 12) + ((data[pos++] & 0x3f) << 6) + (data[pos++] & 0x3f));
+			}
+		}
+
+		return new String(buf, 0, len);
 	}
 
 	/**
@@ -1203,7 +2266,13 @@ public class TinyRemapper {
 		return new AsmClassRemapper.AsmAnnotationRemapper(desc, delegate, defaultState.remapper);
 	}
 
-	private byte[] fixClass(ClassInstance cls, byte[] data) {
+	/**
+	 * Create a visitor widening the access of the class and its members as determined by the package access checks.
+	 *
+	 * @param next Visitor receiving the remapped class.
+	 * @return the access fixing visitor or next if the class doesn't need any fixes.
+	 */
+	private ClassVisitor createAccessFixVisitor(ClassInstance cls, ClassVisitor next) {
 		boolean makeClsPublic = classesToMakePublic.contains(cls);
 		Set<String> clsMembersToMakePublic = null;
 
@@ -1226,14 +2295,11 @@ public class TinyRemapper {
 			}
 		}
 
-		if (!makeClsPublic && clsMembersToMakePublic == null) return data;
+		if (!makeClsPublic && clsMembersToMakePublic == null) return next;
 
 		final Set<String> finalClsMembersToMakePublic = clsMembersToMakePublic;
 
-		ClassReader reader = new ClassReader(data);
-		ClassWriter writer = new ClassWriter(0);
-
-		reader.accept(new ClassVisitor(Opcodes.ASM9, writer) {
+		return new ClassVisitor(Opcodes.ASM9, next) {
 			@Override
 			public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
 				if (makeClsPublic) {
@@ -1262,9 +2328,7 @@ public class TinyRemapper {
 
 				return super.visitMethod(access, name, descriptor, signature, exceptions);
 			}
-		}, 0);
-
-		return writer.toByteArray();
+		};
 	}
 
 	public synchronized TrEnvironment getEnvironment() {
@@ -1285,44 +2349,71 @@ public class TinyRemapper {
 		return logger;
 	}
 
-	private static void waitForAll(Iterable<Future<?>> futures) {
-		try {
-			for (Future<?> future : futures) {
-				future.get();
-			}
-		} catch (InterruptedException | ExecutionException e) {
-			throw new RuntimeException(e);
+	/**
+	 * Invoke action for all elements, using the thread pool if there are enough elements.
+	 *
+	 * <p>The elements are split into batches of at least minBatchSize elements, with about 4 batches per thread.
+	 */
+	private <T> void runParallel(Collection<T> elements, int minBatchSize, Consumer<? super T> action) {
+		int batchSize = Math.max(elements.size() / threadCount / 4, minBatchSize);
+
+		if (elements.size() <= batchSize) {
+			elements.forEach(action);
+			return;
 		}
-	}
 
-	private static String getClassName(String nameDesc, MemberType type) {
-		int descStart = getDescStart(nameDesc, type);
-		int nameStart = nameDesc.lastIndexOf('/', descStart - 1);
-		if (nameStart == -1) nameStart = 0;
+		List<T> list = new ArrayList<>(elements);
+		List<Runnable> batches = new ArrayList<>();
+
+		for (int start = 0; start < list.size(); start += batchSize) {
+			List<T> batch = list.subList(start, Math.min(start + batchSize, list.size()));
+			batches.add(() -> batch.forEach(action));
+		}
 
-		return nameDesc.substring(0, nameStart);
+		runAll(batches);
 	}
 
-	private static String stripClassName(String nameDesc, MemberType type) {
-		int descStart = getDescStart(nameDesc, type);
-		int nameStart = nameDesc.lastIndexOf('/', descStart - 1);
-		if (nameStart == -1) nameStart = 0;
+	/**
+	 * Run the tasks on the thread pool and the current thread, returning after all of them completed.
+	 *
+	 * <p>The current thread processes tasks as well instead of only waiting for the pool. Invoked from one of the pool's
+	 * own threads, as by applyAsync, this completes even if no other pool thread is available.
+	 */
+	private void runAll(List<? extends Runnable> tasks) {
+		AtomicInteger nextIndex = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(tasks.size());
+		AtomicReference<Throwable> failure = new AtomicReference<>();
 
-		return nameDesc.substring(nameStart + 1);
-	}
+		Runnable worker = () -> {
+			int index;
 
-	private static int getDescStart(String nameDesc, MemberType type) {
-		int ret;
+			while ((index = nextIndex.getAndIncrement()) < tasks.size()) {
+				try {
+					tasks.get(index).run();
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				} finally {
+					done.countDown();
+				}
+			}
+		};
 
-		if (type == TrMember.MemberType.METHOD) {
-			ret = nameDesc.indexOf('(');
-		} else {
-			ret = nameDesc.indexOf(";;");
+		for (int i = Math.min(threadCount, tasks.size()) - 1; i > 0; i--) {
+			threadPool.execute(worker);
 		}
 
-		if (ret == -1) ret = nameDesc.length();
+		worker.run();
 
-		return ret;
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+
+		Throwable t = failure.get();
+		if (t instanceof RuntimeException) throw (RuntimeException) t;
+		if (t instanceof Error) throw (Error) t;
+		if (t != null) throw new RuntimeException(t);
 	}
 
 	enum Direction {
@@ -1332,44 +2423,72 @@ public class TinyRemapper {
 	}
 
 	class Propagation implements Runnable {
-		Propagation(MrjState state, MemberType type, List<Map.Entry<String, String>> tasks) {
+		Propagation(MrjState state) {
 			this.state = state;
-			this.type = type;
-			this.tasks.addAll(tasks);
+		}
+
+		void add(MemberType type, MappingTable.Entry entry) {
+			(type == TrMember.MemberType.METHOD ? methods : fields).add(entry);
+		}
+
+		void addAll(Propagation o) {
+			methods.addAll(o.methods);
+			fields.addAll(o.fields);
+		}
+
+		int size() {
+			return methods.size() + fields.size();
+		}
+
+		/**
+		 * Create a task for the supplied index range, counting the methods first and then the fields.
+		 */
+		Propagation slice(int start, int end) {
+			Propagation ret = new Propagation(state);
+			int methodCount = methods.size();
+			end = Math.min(end, size());
+
+			ret.methods.addAll(methods.subList(Math.min(start, methodCount), Math.min(end, methodCount)));
+			ret.fields.addAll(fields.subList(Math.max(start - methodCount, 0), Math.max(end - methodCount, 0)));
+
+			return ret;
 		}
 
 		@Override
 		public void run() {
-			Set<ClassInstance> visitedUp = Collections.newSetFromMap(new IdentityHashMap<>());
-			Set<ClassInstance> visitedDown = Collections.newSetFromMap(new IdentityHashMap<>());
+			ClassVisitMarks visitedUp = new ClassVisitMarks();
+			ClassVisitMarks visitedDown = new ClassVisitMarks();
 
-			for (Map.Entry<String, String> entry : tasks) {
-				String className = getClassName(entry.getKey(), type);
-				ClassInstance cls = state.getClass(className);
+			run(TrMember.MemberType.METHOD, methods, visitedUp, visitedDown);
+			run(TrMember.MemberType.FIELD, fields, visitedUp, visitedDown);
+		}
+
+		private void run(MemberType type, List<MappingTable.Entry> entries, ClassVisitMarks visitedUp, ClassVisitMarks visitedDown) {
+			for (MappingTable.Entry entry : entries) {
+				ClassInstance cls = state.getClass(entry.owner);
 				if (cls == null) continue; // not available for this Side
 
-				String idSrc = stripClassName(entry.getKey(), type);
-				String nameDst = entry.getValue();
+				String nameDst = entry.dstName;
 				assert nameDst.indexOf('/') < 0;
 
-				if (MemberInstance.getNameFromId(type, idSrc, ignoreFieldDesc).equals(nameDst)) {
+				if (entry.name.equals(nameDst)) {
 					continue; // no name change
 				}
 
-				MemberInstance member = resolveMissing ? cls.resolve(type, idSrc) : cls.getMember(type, idSrc);
+				MemberInstance member = resolveMissing ? cls.resolve(type, entry.name, entry.desc) : cls.getMember(type, entry.name, entry.desc);
 
-				if (member == null) {
-					// not available for this Side
+				if (member == null // not available for this Side
+						|| member.cls.tr != TinyRemapper.this) { // resolved to a class from an overlay's base, already propagated there
 					continue;
 				}
 
-				Propagator.propagate(member, idSrc, nameDst, visitedUp, visitedDown);
+				Propagator.propagate(member, nameDst, visitedUp, visitedDown);
 			}
 		}
 
 		private final MrjState state;
-		private final MemberType type;
-		private final List<Map.Entry<String, String>> tasks = new ArrayList<>();
+		private final List<MappingTable.Entry> methods = new ArrayList<>();
+		private final List<MappingTable.Entry> fields = new ArrayList<>();
 	}
 
 	public enum LinkedMethodPropagation {
@@ -1417,21 +2536,31 @@ public class TinyRemapper {
 
 		@Override
 		public ClassInstance getClass(String internalName) {
-			return classes.get(internalName);
+			ClassInstance ret = classes.get(internalName);
+			if (ret == null && baseState != null) ret = baseState.getClass(internalName);
+
+			return ret;
 		}
 
 		@Override
 		public void propagate(TrMember m, String newName) {
 			MemberInstance member = (MemberInstance) m;
-			Set<ClassInstance> visitedUp = Collections.newSetFromMap(new IdentityHashMap<>());
-			Set<ClassInstance> visitedDown = Collections.newSetFromMap(new IdentityHashMap<>());
 
-			Propagator.propagate(member, member.getId(), newName, visitedUp, visitedDown);
+			if (member.cls.tr != tr) {
+				tr.logger.warn("can't propagate %s from an overlay's base class %s", member.name, member.cls.getName());
+				return;
+			}
+
+			ClassVisitMarks visitedUp = new ClassVisitMarks();
+			ClassVisitMarks visitedDown = new ClassVisitMarks();
+
+			Propagator.propagate(member, newName, visitedUp, visitedDown);
 		}
 
 		final TinyRemapper tr;
 		final int version;
 		final Map<String, ClassInstance> classes = new HashMap<>();
+		MrjState baseState; // base remapper's state for overlays, classes missing here are being looked up there
 		final AsmRemapper remapper;
 		volatile boolean dirty = true;
 	}
@@ -1439,6 +2568,10 @@ public class TinyRemapper {
 	private final boolean check = false;
 
 	private final boolean keepInputData;
+	private final boolean incremental;
+	final ClassDataCompressor classDataCompressor; // null if input data isn't retained compressed
+	private final long outputBufferMemoryLimit;
+	private final int maxPendingOutputs;
 	final Set<String> forcePropagation;
 	final Set<String> knownIndyBsm;
 	final boolean propagatePrivate;
@@ -1447,6 +2580,10 @@ public class TinyRemapper {
 	private final boolean removeFrames;
 	private final boolean ignoreConflicts;
 	private final boolean resolveMissing;
+	private final boolean precomputeResolution;
+	final BoundedResolveCache resolveCache; // null for unbounded per class caches
+	final DescriptorCache descriptorCache; // null if disabled
+	final DescriptorCache signatureCache; // null if disabled
 	private final boolean checkPackageAccess;
 	private final boolean fixPackageAccess;
 	private final boolean rebuildSourceFilenames;
@@ -1454,17 +2591,23 @@ public class TinyRemapper {
 	private final boolean renameInvalidLocals;
 	private final Pattern invalidLvNamePattern;
 	private final boolean inferNameFromSameLvIndex;
+	private final Path classPathCacheDir;
 	private final List<AnalyzeVisitorProvider> analyzeVisitors;
 	private final List<StateProcessor> stateProcessors;
 	private final List<ApplyVisitorProvider> preApplyVisitors;
 	private final List<ApplyVisitorProvider> postApplyVisitors;
 	private final TrLogger logger;
 	final Remapper extraRemapper;
+	private final TinyRemapper base; // remapper holding the shared classes for overlays, null otherwise
+	private final RemapperMetrics metrics; // null if not measuring
+	final LongAdder resolveCacheHits; // null if not measuring
+	final LongAdder resolveCacheMisses; // null if not measuring
 
+	final AtomicInteger classIdCounter = new AtomicInteger(); // source for ClassInstance.id
 	final AtomicReference<Map<InputTag, InputTag[]>> singleInputTags = new AtomicReference<>(Collections.emptyMap()); // cache for tag -> { tag }
 
-	final List<CompletableFuture<?>> pendingReads = new ArrayList<>(); // reads that need to be waited for before continuing processing (assumes lack of external waiting)
-	final Map<String, ClassInstance> readClasses = new ConcurrentHashMap<>(); // classes being potentially concurrently read, to be transferred into unsynchronized classes later
+	final List<CompletableFuture<List<ClassInstance>>> pendingReads = new ArrayList<>(); // reads not yet consumed by refresh, guarded by itself
+	final Map<String, ClassInstance> readClasses = new ConcurrentHashMap<>(); // classes from consumed reads, to be transferred into the states by refresh
 
 	final MrjState defaultState = new MrjState(this, ClassInstance.MRJ_DEFAULT);
 	final Map<Integer, MrjState> mrjStates = new HashMap<>();
@@ -1473,19 +2616,31 @@ public class TinyRemapper {
 		mrjStates.put(defaultState.version, defaultState);
 	}
 
-	final Map<String, String> classMap = new HashMap<>();
-	final Map<String, String> methodMap = new HashMap<>();
-	final Map<String, String> methodArgMap = new HashMap<>();
-	final Map<String, String> methodVarMap = new HashMap<>();
-	final Map<String, String> fieldMap = new HashMap<>();
+	private CompiledMappings mappings;
+	ClassMappingTable classMap;
+	MappingTable methodMap;
+	MappingTable methodArgMap;
+	MappingTable methodVarMap;
+	MappingTable fieldMap;
 	final Map<MemberInstance, Set<String>> conflicts = new ConcurrentHashMap<>();
 	final Set<ClassInstance> classesToMakePublic = Collections.newSetFromMap(new ConcurrentHashMap<>());
 	final Set<MemberInstance> membersToMakePublic = Collections.newSetFromMap(new ConcurrentHashMap<>());
 	private final Collection<IMappingProvider> mappingProviders;
+	private final List<CompiledMappings> compiledMappings;
 	final boolean ignoreFieldDesc;
+	private static final String mrjEntryPrefix = "META-INF/versions/";
+	private static final int minZipBatchSize = 64;
+	private static final int minMergeBatchSize = 256;
+	private static final int minResolutionBatchSize = 64;
+	private static final int minAnalyzeBatchSize = 16;
+
 	private final int threadCount;
 	private final ExecutorService threadPool;
+	private final boolean ownsThreadPool;
 
-	private volatile boolean dirty = true; // volatile to make the state debug asserts more reliable, shouldn't actually see concurrent modifications
-	private Map<ClassInstance, byte[]> outputBuffer;
+	private volatile boolean dirty = true; // mappings not loaded yet or consumed reads not processed, guarded by this
+	private OutputBuffer outputBuffer;
+	private CompletableFuture<?> lastApply = CompletableFuture.completedFuture(null); // apply invocations run in sequence
+	private final Set<ClassInstance> changedClasses = Collections.newSetFromMap(new IdentityHashMap<>()); // classes to transform again for incremental updates
+	private Set<String> renamedMemberNames; // lazily collected by getRenamedMemberNames
 }
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Minimal zip reader operating directly on a {@link FileChannel}.
+ *
+ * <p>The central directory is parsed once when opening the archive, entries are then read with positional reads and
+ * inflated straight into a byte array of the final size. Positional reads don't share any channel state, so entries
+ * may be read from multiple threads concurrently as long as every thread uses its own {@link Inflater}.
+ */
+final class ZipReader implements Closeable {
+	static ZipReader open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+		try {
+			return new ZipReader(file, channel, readCentralDirectory(file, channel));
+		} catch (Throwable t) {
+			channel.close();
+			throw t;
+		}
+	}
+
+	private ZipReader(Path file, FileChannel channel, List<Entry> entries) {
+		this.file = file;
+		this.channel = channel;
+		this.entries = entries;
+	}
+
+	/**
+	 * Get all entries in central directory order.
+	 */
+	List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Read the uncompressed content of an entry.
+	 *
+	 * @param entry Entry to read, has to originate from this reader.
+	 * @param inflater Inflater to use for deflated entries, will be reset before use.
+	 */
+	byte[] read(Entry entry, Inflater inflater) throws IOException {
+		if (entry.size > MAX_ENTRY_SIZE) throw new ZipException("entry "+entry.name+" in "+file+" is too large");
+
+		byte[] compressed = readRaw(entry);
+		if (entry.method == METHOD_STORED) return compressed;
+
+		byte[] ret = new byte[(int) entry.size];
+		inflater.reset();
+		inflater.setInput(compressed);
+
+		try {
+			int pos = 0;
+
+			while (pos < ret.length) {
+				int len = inflater.inflate(ret, pos, ret.length - pos);
+
+				if (len == 0) {
+					if (inflater.finished() || inflater.needsDictionary() || inflater.needsInput()) {
+						throw new ZipException("truncated entry "+entry.name+" in "+file);
+					}
+				}
+
+				pos += len;
+			}
+		} catch (DataFormatException e) {
+			throw new ZipException("invalid deflate data for entry "+entry.name+" in "+file+": "+e.getMessage());
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Open a stream for the uncompressed content of an entry.
+	 *
+	 * <p>Only the compressed data is buffered, inflating happens incrementally as the stream is being read. The
+	 * inflater is in use until the stream has been consumed.
+	 *
+	 * @param entry Entry to read, has to originate from this reader.
+	 * @param inflater Inflater to use for deflated entries, will be reset before use.
+	 */
+	InputStream open(Entry entry, Inflater inflater) throws IOException {
+		byte[] compressed = readRaw(entry);
+		if (entry.method == METHOD_STORED) return new ByteArrayInputStream(compressed);
+
+		inflater.reset();
+		inflater.setInput(compressed);
+
+		return new InputStream() {
+			@Override
+			public int read() throws IOException {
+				int ret = read(singleByte, 0, 1);
+
+				return ret > 0 ? singleByte[0] & 0xff : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (len == 0) return 0;
+
+				try {
+					int ret;
+
+					while ((ret = inflater.inflate(b, off, len)) == 0) {
+						if (inflater.finished()) return -1;
+						if (inflater.needsDictionary() || inflater.needsInput()) throw new ZipException("truncated entry "+entry.name+" in "+file);
+					}
+
+					return ret;
+				} catch (DataFormatException e) {
+					throw new ZipException("invalid deflate data for entry "+entry.name+" in "+file+": "+e.getMessage());
+				}
+			}
+
+			private final byte[] singleByte = new byte[1];
+		};
+	}
+
+	/**
+	 * Read the content of an entry as it is stored in the archive, i.e. compressed if the entry is compressed.
+	 */
+	byte[] readRaw(Entry entry) throws IOException {
+		if (entry.compressedSize > MAX_ENTRY_SIZE) throw new ZipException("entry "+entry.name+" in "+file+" is too large");
+		if (entry.method != METHOD_STORED && entry.method != METHOD_DEFLATED) throw new ZipException("unsupported compression method "+entry.method+" for entry "+entry.name+" in "+file);
+		if (entry.method == METHOD_STORED && entry.compressedSize != entry.size) throw new ZipException("invalid stored entry "+entry.name+" in "+file);
+
+		ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, header, entry.localHeaderOffset);
+
+		if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) throw new ZipException("invalid local header for entry "+entry.name+" in "+file);
+
+		long dataOffset = entry.localHeaderOffset + LOCAL_HEADER_SIZE + (header.getShort(26) & 0xffff) + (header.getShort(28) & 0xffff);
+		byte[] ret = new byte[(int) entry.compressedSize];
+		readFully(channel, ByteBuffer.wrap(ret), dataOffset);
+
+		return ret;
+	}
+
+	Path getFile() {
+		return file;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private static List<Entry> readCentralDirectory(Path file, FileChannel channel) throws IOException {
+		long fileSize = channel.size();
+		if (fileSize < END_HEADER_SIZE) throw new ZipException("not a zip file: "+file);
+
+		// locate the end of central directory record, it is followed by a variable length comment of up to 64k
+
+		int tailSize = (int) Math.min(fileSize, END_HEADER_SIZE + 0xffff);
+		ByteBuffer tail = ByteBuffer.allocate(tailSize).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, tail, fileSize - tailSize);
+
+		int endPos = -1;
+
+		for (int pos = tailSize - END_HEADER_SIZE; pos >= 0; pos--) {
+			if (tail.getInt(pos) == END_HEADER_SIGNATURE
+					&& pos + END_HEADER_SIZE + (tail.getShort(pos + 20) & 0xffff) <= tailSize) {
+				endPos = pos;
+				break;
+			}
+		}
+
+		if (endPos < 0) throw new ZipException("can't find end of central directory in "+file);
+
+		long entryCount = tail.getShort(endPos + 10) & 0xffff;
+		long cdSize = tail.getInt(endPos + 12) & 0xffffffffL;
+		long cdOffset = tail.getInt(endPos + 16) & 0xffffffffL;
+
+		if (entryCount == 0xffff || cdSize == 0xffffffffL || cdOffset == 0xffffffffL) { // zip64
+			long locatorPos = fileSize - tailSize + endPos - ZIP64_LOCATOR_SIZE;
+
+			if (locatorPos >= 0) {
+				ByteBuffer locator = ByteBuffer.allocate(ZIP64_LOCATOR_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+				readFully(channel, locator, locatorPos);
+
+				if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+					ByteBuffer end64 = ByteBuffer.allocate(ZIP64_END_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+					readFully(channel, end64, locator.getLong(8));
+					if (end64.getInt(0) != ZIP64_END_HEADER_SIGNATURE) throw new ZipException("invalid zip64 end of central directory in "+file);
+
+					entryCount = end64.getLong(32);
+					cdSize = end64.getLong(40);
+					cdOffset = end64.getLong(48);
+				}
+			}
+		}
+
+		if (cdSize > Integer.MAX_VALUE || cdOffset + cdSize > fileSize) throw new ZipException("invalid central directory in "+file);
+
+		ByteBuffer cd = ByteBuffer.allocate((int) cdSize).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, cd, cdOffset);
+
+		List<Entry> ret = new ArrayList<>((int) Math.min(entryCount, cdSize / CENTRAL_HEADER_SIZE));
+		int pos = 0;
+
+		while (pos + CENTRAL_HEADER_SIZE <= cdSize) {
+			if (cd.getInt(pos) != CENTRAL_HEADER_SIGNATURE) break;
+
+			int method = cd.getShort(pos + 10) & 0xffff;
+			int crc = cd.getInt(pos + 16);
+			long compressedSize = cd.getInt(pos + 20) & 0xffffffffL;
+			long size = cd.getInt(pos + 24) & 0xffffffffL;
+			int nameLen = cd.getShort(pos + 28) & 0xffff;
+			int extraLen = cd.getShort(pos + 30) & 0xffff;
+			int commentLen = cd.getShort(pos + 32) & 0xffff;
+			long localHeaderOffset = cd.getInt(pos + 42) & 0xffffffffL;
+
+			int namePos = pos + CENTRAL_HEADER_SIZE;
+			int extraPos = namePos + nameLen;
+			if (extraPos + extraLen + commentLen > cdSize) throw new ZipException("truncated central directory in "+file);
+
+			String name = new String(cd.array(), namePos, nameLen, StandardCharsets.UTF_8);
+
+			if (size == 0xffffffffL || compressedSize == 0xffffffffL || localHeaderOffset == 0xffffffffL) {
+				// zip64 extended information, the fields are only present if the corresponding regular field overflowed
+				int extraEnd = extraPos + extraLen;
+
+				while (extraPos + 4 <= extraEnd) {
+					int id = cd.getShort(extraPos) & 0xffff;
+					int len = cd.getShort(extraPos + 2) & 0xffff;
+					int fieldPos = extraPos + 4;
+					extraPos = fieldPos + len;
+
+					if (id != ZIP64_EXTRA_ID) continue;
+
+					if (size == 0xffffffffL && fieldPos + 8 <= extraPos) {
+						size = cd.getLong(fieldPos);
+						fieldPos += 8;
+					}
+
+					if (compressedSize == 0xffffffffL && fieldPos + 8 <= extraPos) {
+						compressedSize = cd.getLong(fieldPos);
+						fieldPos += 8;
+					}
+
+					if (localHeaderOffset == 0xffffffffL && fieldPos + 8 <= extraPos) {
+						localHeaderOffset = cd.getLong(fieldPos);
+					}
+
+					break;
+				}
+			}
+
+			ret.add(new Entry(name, method, crc, compressedSize, size, localHeaderOffset));
+			pos = namePos + nameLen + extraLen + commentLen;
+		}
+
+		return Collections.unmodifiableList(ret);
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) throw new EOFException();
+
+			position += read;
+		}
+	}
+
+	static final class Entry {
+		Entry(String name, int method, int crc, long compressedSize, long size, long localHeaderOffset) {
+			this.name = name;
+			this.method = method;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+
+		boolean isDirectory() {
+			return name.endsWith("/");
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+
+		final String name;
+		final int method;
+		final int crc;
+		final long compressedSize;
+		final long size;
+		final long localHeaderOffset;
+	}
+
+	static final int METHOD_STORED = 0;
+	static final int METHOD_DEFLATED = 8;
+
+	static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	static final int END_HEADER_SIGNATURE = 0x06054b50;
+	static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+	static final int ZIP64_END_HEADER_SIGNATURE = 0x06064b50;
+	static final int ZIP64_EXTRA_ID = 0x0001;
+	static final int LOCAL_HEADER_SIZE = 30;
+	static final int CENTRAL_HEADER_SIZE = 46;
+	static final int END_HEADER_SIZE = 22;
+	static final int ZIP64_LOCATOR_SIZE = 20;
+	static final int ZIP64_END_HEADER_SIZE = 56;
+	private static final long MAX_ENTRY_SIZE = Integer.MAX_VALUE - 8;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final List<Entry> entries;
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipException;
+
+/**
+ * Minimal sequential zip writer operating directly on a {@link FileChannel}, the counterpart to {@link ZipReader}.
+ *
+ * <p>Entries are supplied with their final, possibly already compressed content and written back to back. The central
+ * directory is kept in memory and written when closing, optionally sorted independently of the order the entries were
+ * written in. Writing an entry with the name of an earlier one replaces it in the central directory, the earlier data
+ * stays in the file unreferenced. Zip64 records are only emitted if the archive exceeds the limits of the regular
+ * format. All entries use a fixed timestamp, so identical input produces identical archives.
+ *
+ * <p>The writer is not thread safe.
+ */
+final class ZipWriter implements Closeable {
+	/**
+	 * @param centralDirectoryOrder Order of the central directory entries by name, null to keep the written order.
+	 */
+	static ZipWriter create(Path file, /* @Nullable */ Comparator<String> centralDirectoryOrder) throws IOException {
+		return new ZipWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+				centralDirectoryOrder);
+	}
+
+	private ZipWriter(FileChannel channel, Comparator<String> centralDirectoryOrder) {
+		this.channel = channel;
+		this.centralDirectoryOrder = centralDirectoryOrder;
+	}
+
+	/**
+	 * Write an entry.
+	 *
+	 * @param name Entry name, ends with '/' for directories.
+	 * @param method {@link ZipReader#METHOD_STORED} or {@link ZipReader#METHOD_DEFLATED}.
+	 * @param crc CRC-32 of the uncompressed content.
+	 * @param size Uncompressed size.
+	 * @param data Content as stored in the archive, i.e. compressed for deflated entries.
+	 */
+	void write(String name, int method, int crc, int size, byte[] data) throws IOException {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		if (nameBytes.length == 0 || nameBytes.length > 0xffff) throw new ZipException("invalid entry name length: "+name);
+
+		CentralEntry entry = new CentralEntry(nameBytes, method, crc, data.length, size, position);
+		reserve(ZipReader.LOCAL_HEADER_SIZE + nameBytes.length);
+
+		buffer.putInt(ZipReader.LOCAL_HEADER_SIGNATURE);
+		buffer.putShort((short) VERSION_DEFAULT);
+		buffer.putShort((short) FLAG_UTF8);
+		buffer.putShort((short) method);
+		buffer.putShort((short) DOS_TIME);
+		buffer.putShort((short) DOS_DATE);
+		buffer.putInt(crc);
+		buffer.putInt(data.length);
+		buffer.putInt(size);
+		buffer.putShort((short) nameBytes.length);
+		buffer.putShort((short) 0); // extra length
+		buffer.put(nameBytes);
+
+		if (data.length <= buffer.remaining()) {
+			buffer.put(data);
+		} else {
+			flush();
+			writeFully(ByteBuffer.wrap(data));
+		}
+
+		position += data.length;
+		entries.remove(name); // keep the written order for the replacement
+		entries.put(name, entry);
+	}
+
+	/**
+	 * Write the central directory and close the underlying channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+
+		closed = true;
+
+		try {
+			long cdOffset = position;
+			List<CentralEntry> sorted;
+
+			if (centralDirectoryOrder == null) {
+				sorted = new ArrayList<>(entries.values());
+			} else {
+				List<String> names = new ArrayList<>(entries.keySet());
+				names.sort(centralDirectoryOrder);
+				sorted = new ArrayList<>(names.size());
+
+				for (String name : names) {
+					sorted.add(entries.get(name));
+				}
+			}
+
+			for (CentralEntry entry : sorted) {
+				boolean zip64 = entry.localHeaderOffset >= 0xffffffffL;
+				int extraLen = zip64 ? 12 : 0;
+				int version = zip64 ? VERSION_ZIP64 : VERSION_DEFAULT;
+				reserve(ZipReader.CENTRAL_HEADER_SIZE + entry.name.length + extraLen);
+
+				buffer.putInt(ZipReader.CENTRAL_HEADER_SIGNATURE);
+				buffer.putShort((short) version); // made by, MS-DOS host
+				buffer.putShort((short) version); // needed to extract
+				buffer.putShort((short) FLAG_UTF8);
+				buffer.putShort((short) entry.method);
+				buffer.putShort((short) DOS_TIME);
+				buffer.putShort((short) DOS_DATE);
+				buffer.putInt(entry.crc);
+				buffer.putInt(entry.compressedSize);
+				buffer.putInt(entry.size);
+				buffer.putShort((short) entry.name.length);
+				buffer.putShort((short) extraLen);
+				buffer.putShort((short) 0); // comment length
+				buffer.putShort((short) 0); // disk number
+				buffer.putShort((short) 0); // internal attributes
+				buffer.putInt(entry.name[entry.name.length - 1] == '/' ? DOS_DIRECTORY_ATTR : 0);
+				buffer.putInt(zip64 ? -1 : (int) entry.localHeaderOffset);
+				buffer.put(entry.name);
+
+				if (zip64) {
+					buffer.putShort((short) ZipReader.ZIP64_EXTRA_ID);
+					buffer.putShort((short) 8);
+					buffer.putLong(entry.localHeaderOffset);
+				}
+			}
+
+			long cdSize = position - cdOffset;
+			int count = entries.size();
+
+			if (count >= 0xffff || cdOffset >= 0xffffffffL || cdSize >= 0xffffffffL) {
+				long end64Offset = position;
+				reserve(ZipReader.ZIP64_END_HEADER_SIZE + ZipReader.ZIP64_LOCATOR_SIZE);
+
+				buffer.putInt(ZipReader.ZIP64_END_HEADER_SIGNATURE);
+				buffer.putLong(ZipReader.ZIP64_END_HEADER_SIZE - 12); // record size excluding the leading 12 bytes
+				buffer.putShort((short) VERSION_ZIP64);
+				buffer.putShort((short) VERSION_ZIP64);
+				buffer.putInt(0); // disk number
+				buffer.putInt(0); // central directory disk number
+				buffer.putLong(count);
+				buffer.putLong(count);
+				buffer.putLong(cdSize);
+				buffer.putLong(cdOffset);
+
+				buffer.putInt(ZipReader.ZIP64_LOCATOR_SIGNATURE);
+				buffer.putInt(0); // zip64 end of central directory disk number
+				buffer.putLong(end64Offset);
+				buffer.putInt(1); // disk count
+			}
+
+			reserve(ZipReader.END_HEADER_SIZE);
+
+			buffer.putInt(ZipReader.END_HEADER_SIGNATURE);
+			buffer.putShort((short) 0); // disk number
+			buffer.putShort((short) 0); // central directory disk number
+			buffer.putShort((short) Math.min(count, 0xffff));
+			buffer.putShort((short) Math.min(count, 0xffff));
+			buffer.putInt((int) Math.min(cdSize, 0xffffffffL));
+			buffer.putInt((int) Math.min(cdOffset, 0xffffffffL));
+			buffer.putShort((short) 0); // comment length
+
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Ensure the buffer has the requested amount of space remaining and account for it being filled by the caller.
+	 */
+	private void reserve(int size) throws IOException {
+		if (buffer.remaining() < size) flush();
+
+		position += size;
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	private void writeFully(ByteBuffer src) throws IOException {
+		while (src.hasRemaining()) {
+			channel.write(src);
+		}
+	}
+
+	private static final class CentralEntry {
+		CentralEntry(byte[] name, int method, int crc, int compressedSize, int size, long localHeaderOffset) {
+			this.name = name;
+			this.method = method;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+
+		final byte[] name;
+		final int method;
+		final int crc;
+		final int compressedSize;
+		final int size;
+		final long localHeaderOffset;
+	}
+
+	private static final int VERSION_DEFAULT = 20;
+	private static final int VERSION_ZIP64 = 45;
+	private static final int FLAG_UTF8 = 0x800;
+	private static final int DOS_TIME = 0; // 00:00:00
+	private static final int DOS_DATE = (1 << 5) | 1; // 1980-01-01
+	private static final int DOS_DIRECTORY_ATTR = 0x10;
+	private static final int BUFFER_SIZE = 1 << 17; // has to fit a local header with the longest possible name
+
+	private final FileChannel channel;
+	private final Comparator<String> centralDirectoryOrder;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	private final Map<String, CentralEntry> entries = new LinkedHashMap<>();
+	private long position;
+	private boolean closed;
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.tinyremapper.api.TrMember.MemberType;
+
+class BoundedResolveCacheTest {
+	@Test
+	public void eviction() {
+		BoundedResolveCache cache = new BoundedResolveCache(100, false);
+		ClassInstance clsA = new ClassInstance(null, false, new InputTag[0], null, new byte[0]);
+		ClassInstance clsB = new ClassInstance(null, false, new InputTag[0], null, new byte[0]);
+		MemberInstance member = new MemberInstance(MemberType.METHOD, null, "m", "()V", 0, 0);
+
+		assertNull(cache.putIfAbsent(clsA, member));
+		assertSame(member, cache.get(clsA, MemberType.METHOD, "m", "()V"));
+		assertSame(member, cache.putIfAbsent(clsA, new MemberInstance(MemberType.METHOD, null, "m", "()V", 0, 0)));
+		assertNull(cache.get(clsB, MemberType.METHOD, "m", "()V"));
+		assertNull(cache.get(clsA, MemberType.FIELD, "m", "()V"));
+		assertNull(cache.get(clsA, MemberType.METHOD, "m", "()I"));
+
+		for (int i = 0; i < 1000; i++) {
+			cache.putIfAbsent(clsB, new MemberInstance(MemberType.FIELD, null, "f"+i, "I", 0, 0));
+			assertSame(member, cache.get(clsA, MemberType.METHOD, "m", "()V")); // recently used, never evicted
+		}
+
+		assertEquals(100, cache.size());
+		assertEquals(901, cache.evictions.sum());
+		assertNull(cache.get(clsB, MemberType.FIELD, "f0", "I"));
+		assertNotNull(cache.get(clsB, MemberType.FIELD, "f999", "I"));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNull(cache.get(clsA, MemberType.METHOD, "m", "()V"));
+	}
+
+	@Test
+	public void ignoreFieldDesc() {
+		BoundedResolveCache cache = new BoundedResolveCache(100, true);
+		ClassInstance cls = new ClassInstance(null, false, new InputTag[0], null, new byte[0]);
+		MemberInstance field = new MemberInstance(MemberType.FIELD, null, "a", "I", 0, 0);
+
+		assertNull(cache.putIfAbsent(cls, field));
+		assertSame(field, cache.get(cls, MemberType.FIELD, "a", "J"));
+		assertSame(field, cache.get(cls, MemberType.FIELD, "a", null));
+		assertNull(cache.get(cls, MemberType.METHOD, "a", "I"));
+	}
+}
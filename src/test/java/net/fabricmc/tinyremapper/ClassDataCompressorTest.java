@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClassDataCompressorTest {
+	@Test
+	public void roundTrip() {
+		ClassDataCompressor compressor = new ClassDataCompressor();
+		byte[] text = new byte[10_000];
+
+		for (int i = 0; i < text.length; i++) {
+			text[i] = (byte) ('a' + i % 13);
+		}
+
+		byte[] compressed = compressor.compress(text);
+		assertNotNull(compressed);
+		assertTrue(compressed.length < text.length);
+		assertArrayEquals(text, compressor.decompress(compressed, text.length));
+
+		byte[] random = new byte[1000];
+		new Random(42).nextBytes(random);
+		assertNull(compressor.compress(random));
+		assertNull(compressor.compress(new byte[0]));
+
+		compressor.close();
+	}
+
+	@Test
+	public void repeatedApply() throws IOException {
+		Path input = tmpDir.resolve("fabric-api.jar");
+
+		try (InputStream is = ClassDataCompressorTest.class.getClassLoader().getResourceAsStream("integration/bulk/fabric-api-0.35.1+1.17.jar")) {
+			Files.copy(is, input);
+		}
+
+		Map<String, byte[]> expected = new HashMap<>();
+		TinyRemapper remapper = TinyRemapper.newRemapper().build();
+
+		try {
+			remapper.readInputs(input);
+			remapper.apply(expected::put);
+		} finally {
+			remapper.finish();
+		}
+
+		remapper = TinyRemapper.newRemapper().keepInputData(true).compressInputData(true).build();
+
+		try {
+			remapper.readInputs(input);
+
+			for (int i = 0; i < 2; i++) {
+				Map<String, byte[]> output = new HashMap<>();
+				remapper.apply(output::put);
+
+				assertEquals(expected.keySet(), output.keySet());
+
+				for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+					assertArrayEquals(entry.getValue(), output.get(entry.getKey()), entry.getKey());
+				}
+			}
+		} finally {
+			remapper.finish();
+		}
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
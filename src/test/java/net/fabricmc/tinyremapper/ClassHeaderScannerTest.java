@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+public class ClassHeaderScannerTest {
+	@Test
+	public void matchesClassReader() throws IOException {
+		ClassHeaderScanner scanner = new ClassHeaderScanner();
+		int count = 0;
+
+		try (ZipInputStream outer = new ZipInputStream(getInputStream("integration/bulk/fabric-api-0.35.1+1.17.jar"))) {
+			ZipEntry outerEntry;
+
+			while ((outerEntry = outer.getNextEntry()) != null) {
+				if (!outerEntry.getName().endsWith(".jar")) continue;
+
+				ZipInputStream inner = new ZipInputStream(outer);
+				ZipEntry entry;
+
+				while ((entry = inner.getNextEntry()) != null) {
+					if (!entry.getName().endsWith(".class")) continue;
+
+					byte[] data = readAll(inner);
+					ClassReader reader = new ClassReader(data);
+
+					Recorder expected = new Recorder();
+					reader.accept(expected, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES | ClassReader.SKIP_CODE);
+
+					scanner.readHeader(new ByteArrayInputStream(data));
+					assertEquals(reader.getAccess(), scanner.getAccess());
+					assertEquals(reader.getClassName(), scanner.getClassName());
+
+					Recorder actual = new Recorder();
+					scanner.accept(actual);
+					assertEquals(expected.toString(), actual.toString(), entry.getName());
+
+					scanner.readHeader(new ByteArrayInputStream(data));
+					assertArrayEquals(data, scanner.readFully(), entry.getName());
+
+					count++;
+				}
+			}
+		}
+
+		assertTrue(count > 0);
+	}
+
+	private static InputStream getInputStream(String file) {
+		return ClassHeaderScannerTest.class.getClassLoader().getResourceAsStream(file);
+	}
+
+	private static byte[] readAll(InputStream is) throws IOException {
+		byte[] buffer = new byte[8192];
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		int len;
+
+		while ((len = is.read(buffer)) >= 0) {
+			os.write(buffer, 0, len);
+		}
+
+		return os.toByteArray();
+	}
+
+	private static final class Recorder extends ClassVisitor {
+		Recorder() {
+			super(Opcodes.ASM9);
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+			sb.append(String.format("class %d %x %s %s %s %s%n", version, access, name, signature, superName, Arrays.toString(interfaces)));
+		}
+
+		@Override
+		public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+			sb.append(String.format("field %x %s %s%n", access, name, descriptor));
+
+			return null;
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+			sb.append(String.format("method %x %s %s%n", access, name, descriptor));
+
+			return null;
+		}
+
+		@Override
+		public String toString() {
+			return sb.toString();
+		}
+
+		private final StringBuilder sb = new StringBuilder();
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.commons.Remapper;
+import org.objectweb.asm.commons.SimpleRemapper;
+
+class ClassMappingTableTest {
+	@Test
+	public void lookup() {
+		Map<String, String> map = new HashMap<>();
+
+		for (int i = 0; i < 100; i++) {
+			map.put("pkg/C"+i, "mapped/C"+i);
+		}
+
+		ClassMappingTable table = new ClassMappingTable(map);
+		assertEquals(100, table.size());
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals("mapped/C"+i, table.get("pkg/C"+i));
+
+			String desc = "(ILpkg/C"+i+";)V";
+			assertEquals("mapped/C"+i, table.get(desc, 3, desc.length() - 3));
+			assertNull(table.get(desc, 4, desc.length() - 3));
+		}
+
+		assertNull(table.get("pkg/C100"));
+		assertNull(table.get("pkg/C"));
+		assertNull(new ClassMappingTable(new HashMap<>()).get("pkg/C0", 0, 6));
+
+		Map<String, String> copy = new HashMap<>();
+		table.forEach(copy::put);
+		assertEquals(map, copy);
+	}
+
+	@Test
+	public void remapDescs() {
+		Map<String, String> map = new HashMap<>();
+		map.put("pkg/A", "mapped/A");
+		map.put("pkg/Outer$Inner", "mapped/Inner");
+
+		TinyRemapper remapper = TinyRemapper.newRemapper().withMappings(out -> map.forEach(out::acceptClass)).build();
+
+		try {
+			Remapper asmRemapper = remapper.getEnvironment().getRemapper();
+			Remapper reference = new SimpleRemapper(map);
+
+			for (String desc : new String[] { "I", "[[Lpkg/A;", "Lpkg/AB;", "Lpkg/B;", "[Ljava/lang/String;" }) {
+				assertEquals(reference.mapDesc(desc), asmRemapper.mapDesc(desc));
+			}
+
+			for (String desc : new String[] { "()V", "(ILpkg/A;J)Lpkg/B;", "(Lpkg/B;[J)V", "(Lpkg/Outer;)Lpkg/Outer$Inner;" }) {
+				assertEquals(reference.mapMethodDesc(desc), asmRemapper.mapMethodDesc(desc));
+			}
+
+			for (String signature : new String[] { "Ljava/util/List<Lpkg/A;>;", "<L:Ljava/lang/Object;>(TL;)Lpkg/B;",
+					"Lpkg/Outer<TT;>.Inner;", "<T:Lpkg/A;>Ljava/lang/Object;Ljava/util/List<TT;>;" }) {
+				assertEquals(reference.mapSignature(signature, false), asmRemapper.mapSignature(signature, false));
+			}
+
+			// unaffected descriptors and signatures come back as-is
+			String desc = "(Lpkg/B;[J)V";
+			assertSame(desc, asmRemapper.mapMethodDesc(desc));
+			String signature = "Ljava/util/List<Lpkg/B;>;";
+			assertSame(signature, asmRemapper.mapSignature(signature, true));
+			assertNull(asmRemapper.mapSignature(null, false));
+		} finally {
+			remapper.finish();
+		}
+	}
+}
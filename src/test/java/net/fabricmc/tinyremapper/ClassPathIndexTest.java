@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ClassPathIndexTest {
+	@BeforeAll
+	public static void setup() throws IOException {
+		try (ZipInputStream zis = new ZipInputStream(getInputStream("integration/bulk/fabric-api-0.35.1+1.17.jar"))) {
+			ZipEntry entry;
+
+			while ((entry = zis.getNextEntry()) != null) {
+				if (!entry.isDirectory() && entry.getName().endsWith(".jar")) {
+					String name = entry.getName();
+					Path file = tmpDir.resolve(name.substring(name.lastIndexOf('/') + 1));
+					Files.copy(zis, file);
+					jars.add(file);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void roundTrip() {
+		Path cacheDir = tmpDir.resolve("cache");
+		Map<String, String> expected = describeClassPath(null);
+
+		// first run creates the index, the second one loads it
+
+		assertEquals(expected, describeClassPath(cacheDir));
+
+		for (Path jar : jars) {
+			assertTrue(Files.exists(ClassPathIndex.getIndexFile(cacheDir, jar)), jar.toString());
+		}
+
+		assertEquals(expected, describeClassPath(cacheDir));
+	}
+
+	@Test
+	public void staleIndex() throws IOException {
+		Path cacheDir = tmpDir.resolve("stale-cache");
+		Path jar = tmpDir.resolve("stale.jar");
+		Files.copy(jars.get(0), jar);
+
+		TinyRemapper remapper = TinyRemapper.newRemapper().classPathCache(cacheDir).build();
+		remapper.readClassPath(jar);
+		remapper.finish();
+
+		// replace the jar with a different one, the index has to be rebuilt
+
+		Files.copy(jars.get(1), jar, StandardCopyOption.REPLACE_EXISTING);
+
+		TinyRemapper expected = TinyRemapper.newRemapper().build();
+		expected.readClassPath(jar);
+		TinyRemapper actual = TinyRemapper.newRemapper().classPathCache(cacheDir).build();
+		actual.readClassPath(jar);
+
+		try {
+			assertEquals(describe(expected), describe(actual));
+		} finally {
+			expected.finish();
+			actual.finish();
+		}
+	}
+
+	private static Map<String, String> describeClassPath(Path cacheDir) {
+		TinyRemapper remapper = TinyRemapper.newRemapper().classPathCache(cacheDir).build();
+
+		try {
+			remapper.readClassPath(jars.toArray(new Path[0]));
+
+			return describe(remapper);
+		} finally {
+			remapper.finish();
+		}
+	}
+
+	private static Map<String, String> describe(TinyRemapper remapper) {
+		remapper.getEnvironment();
+		Map<String, String> ret = new TreeMap<>();
+
+		for (TinyRemapper.MrjState state : remapper.mrjStates.values()) {
+			for (ClassInstance cls : state.classes.values()) {
+				StringBuilder sb = new StringBuilder();
+				sb.append(String.format("%d %d %x %s %s %s%n", cls.getClassVersion(), cls.getMrjVersion(), cls.getAccess(), cls.getSignature(), cls.getSuperName(), cls.getInterfaceNames()));
+
+				Map<Integer, String> members = new TreeMap<>();
+
+				for (MemberInstance member : cls.getMembers()) {
+					members.put(member.getIndex(), String.format("%s %x %s %s", member.getType(), member.getAccess(), member.getName(), member.getDesc()));
+				}
+
+				sb.append(members.values());
+				ret.put(state.version+" "+cls.getName(), sb.toString());
+			}
+		}
+
+		return ret;
+	}
+
+	private static InputStream getInputStream(String file) {
+		return ClassPathIndexTest.class.getClassLoader().getResourceAsStream(file);
+	}
+
+	@TempDir
+	static Path tmpDir;
+	private static final List<Path> jars = new ArrayList<>();
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ClassVisitMarksTest {
+	@Test
+	public void marks() {
+		TinyRemapper remapper = TinyRemapper.newRemapper().build();
+		List<ClassInstance> classes = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < 200; i++) {
+				classes.add(new ClassInstance(remapper, false, new InputTag[0], null, null));
+			}
+		} finally {
+			remapper.finish();
+		}
+
+		ClassVisitMarks marks = new ClassVisitMarks();
+
+		for (int pass = 0; pass < 3; pass++) {
+			for (ClassInstance cls : classes) {
+				assertTrue(marks.add(cls));
+				assertFalse(marks.add(cls));
+			}
+
+			marks.clear();
+		}
+
+		ClassVisitMarks nested = marks.nested();
+		nested.clear();
+		assertTrue(marks.add(classes.get(0)));
+		assertTrue(nested.add(classes.get(0)));
+		assertFalse(marks.add(classes.get(0)));
+		assertSame(nested, marks.nested());
+	}
+}
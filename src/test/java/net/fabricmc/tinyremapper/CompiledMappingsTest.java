@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.fabricmc.tinyremapper.IMappingProvider.Member;
+
+class CompiledMappingsTest {
+	@Test
+	public void shared() throws IOException {
+		Path input = tmpDir.resolve("in");
+		Files.createDirectories(input.resolve("pkg"));
+		Files.write(input.resolve("pkg/A.class"), createClass());
+
+		AtomicInteger loads = new AtomicInteger();
+		CompiledMappings mappings = CompiledMappings.compile(out -> {
+			loads.incrementAndGet();
+			out.acceptClass("pkg/A", "pkg/B");
+			out.acceptMethod(new Member("pkg/A", "m", "()V"), "method");
+			out.acceptField(new Member("pkg/A", "f", "I"), "field");
+		}, false);
+
+		assertEquals(1, mappings.getClassCount());
+		assertEquals(1, mappings.getMethodCount());
+		assertEquals(1, mappings.getFieldCount());
+
+		for (int i = 0; i < 2; i++) {
+			TinyRemapper remapper = TinyRemapper.newRemapper().withMappings(mappings).build();
+			Map<String, byte[]> output = new HashMap<>();
+
+			try {
+				remapper.readInputs(input);
+				remapper.apply(output::put);
+			} finally {
+				remapper.finish();
+			}
+
+			assertEquals(Arrays.asList("pkg/B", "field", "method"), describe(output.get("pkg/B")));
+		}
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void duplicateTarget() {
+		assertThrows(RuntimeException.class, () -> CompiledMappings.compile(out -> {
+			out.acceptClass("a", "c");
+			out.acceptClass("b", "c");
+		}, false));
+	}
+
+	@Test
+	public void ignoreFieldDescMismatch() {
+		CompiledMappings mappings = CompiledMappings.compile(out -> { }, true);
+
+		assertThrows(IllegalStateException.class, () -> TinyRemapper.newRemapper().withMappings(mappings).build());
+	}
+
+	private static byte[] createClass() {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "pkg/A", null, "java/lang/Object", null);
+		cw.visitField(Opcodes.ACC_PUBLIC, "f", "I", null, null).visitEnd();
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "m", "()V", null, null);
+		mv.visitCode();
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 1);
+		mv.visitEnd();
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+
+	private static List<String> describe(byte[] data) {
+		List<String> ret = new ArrayList<>();
+
+		new ClassReader(data).accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+				ret.add(name);
+			}
+
+			@Override
+			public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+				ret.add(name);
+
+				return null;
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+				ret.add(name);
+
+				return null;
+			}
+		}, 0);
+
+		return ret;
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
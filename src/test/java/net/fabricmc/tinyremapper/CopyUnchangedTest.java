@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.fabricmc.tinyremapper.IMappingProvider.Member;
+
+class CopyUnchangedTest {
+	@Test
+	public void copyUnchanged() throws IOException {
+		Path classPath = tmpDir.resolve("cp");
+		Files.createDirectories(classPath.resolve("pkg"));
+		Files.write(classPath.resolve("pkg/Lib.class"), createLib());
+
+		Map<String, byte[]> inputs = new HashMap<>();
+		inputs.put("pkg/Plain", createClass("pkg/Plain", null, null));
+		inputs.put("pkg/Caller", createClass("pkg/Caller", "m", null));
+		inputs.put("pkg/Generic", createClass("pkg/Generic", null, "Ljava/util/List<Lpkg/Lib;>;"));
+		inputs.put("pkg/Literal", createClass("pkg/Literal", null, null, "m")); // false positive, still remapped correctly
+
+		Path input = tmpDir.resolve("in");
+		Files.createDirectories(input.resolve("pkg"));
+
+		for (Map.Entry<String, byte[]> entry : inputs.entrySet()) {
+			Files.write(input.resolve(entry.getKey()+".class"), entry.getValue());
+		}
+
+		for (boolean copy : new boolean[] { true, false }) {
+			Map<String, byte[]> output = remap(classPath, input, copy);
+			assertEquals(inputs.keySet(), output.keySet());
+
+			for (Map.Entry<String, byte[]> entry : output.entrySet()) {
+				String expected = TestUtil.describe(inputs.get(entry.getKey())).replace("pkg/Lib", "mapped/Lib").replace(".m", ".mapped");
+				assertEquals(expected, TestUtil.describe(entry.getValue()));
+			}
+
+			// the unused constant pool entry only survives copying
+			assertEquals(copy, Arrays.equals(inputs.get("pkg/Plain"), output.get("pkg/Plain")));
+			assertFalse(Arrays.equals(inputs.get("pkg/Caller"), output.get("pkg/Caller")));
+			assertFalse(Arrays.equals(inputs.get("pkg/Literal"), output.get("pkg/Literal")));
+		}
+	}
+
+	private static Map<String, byte[]> remap(Path classPath, Path input, boolean copy) {
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.withMappings(out -> {
+					out.acceptClass("pkg/Lib", "mapped/Lib");
+					out.acceptMethod(new Member("pkg/Lib", "m", "()V"), "mapped");
+				})
+				.skipLocalVariableMapping(copy)
+				.build();
+		Map<String, byte[]> ret = new HashMap<>();
+
+		try {
+			remapper.readClassPath(classPath);
+			remapper.readInputs(input);
+			remapper.apply(ret::put);
+		} finally {
+			remapper.finish();
+		}
+
+		return ret;
+	}
+
+	private static byte[] createLib() {
+		ClassWriter cw = TestUtil.newClass(Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "pkg/Lib", "java/lang/Object");
+		TestUtil.addMethod(cw, "m");
+
+		return TestUtil.toBytes(cw);
+	}
+
+	/**
+	 * Create a class with an unused constant pool entry, which ASM drops when rewriting the class.
+	 *
+	 * @param call name of a method in pkg/Lib to invoke or null
+	 * @param fieldSignature signature of a field to add or null
+	 * @param literal string constant to load or null
+	 */
+	private static byte[] createClass(String name, String call, String fieldSignature, String... literal) {
+		ClassWriter cw = TestUtil.newClass(Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, "java/lang/Object");
+		cw.newUTF8("unused");
+
+		if (fieldSignature != null) {
+			cw.visitField(Opcodes.ACC_PUBLIC, "f", "Ljava/util/List;", fieldSignature, null).visitEnd();
+		}
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "run", "()V", null, null);
+		mv.visitCode();
+
+		if (call != null) {
+			mv.visitTypeInsn(Opcodes.NEW, "pkg/Lib");
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "pkg/Lib", call, "()V", false);
+		}
+
+		for (String s : literal) {
+			mv.visitLdcInsn(s);
+			mv.visitInsn(Opcodes.POP);
+		}
+
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		return TestUtil.toBytes(cw);
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.commons.Remapper;
+
+class DescriptorCacheTest {
+	@Test
+	public void lookup() {
+		DescriptorCache cache = new DescriptorCache(1);
+		assertNull(cache.get("(Lpkg/A;)V", false));
+
+		cache.put("(Lpkg/A;)V", false, "(Lmapped/A;)V");
+		assertEquals("(Lmapped/A;)V", cache.get(new String("(Lpkg/A;)V"), false));
+		assertNull(cache.get("(Lpkg/A;)V", true));
+		assertNull(cache.get("Lpkg/A;", false));
+
+		cache.put("Lpkg/A;", false, "Lmapped/A;"); // replaces the only slot
+		assertEquals("Lmapped/A;", cache.get("Lpkg/A;", false));
+		assertNull(cache.get("(Lpkg/A;)V", false));
+	}
+
+	@Test
+	public void remap() {
+		for (int size : new int[] { 0, 16 }) {
+			TinyRemapper remapper = TinyRemapper.newRemapper()
+					.withMappings(out -> out.acceptClass("pkg/A", "mapped/A"))
+					.descriptorCacheSize(size)
+					.build();
+
+			try {
+				Remapper asmRemapper = remapper.getEnvironment().getRemapper();
+				String desc = asmRemapper.mapMethodDesc("(Lpkg/A;I)Lpkg/A;");
+				assertEquals("(Lmapped/A;I)Lmapped/A;", desc);
+				assertEquals("Lmapped/A;", asmRemapper.mapDesc("Lpkg/A;"));
+				assertEquals("Ljava/util/List<Lmapped/A;>;", asmRemapper.mapSignature("Ljava/util/List<Lpkg/A;>;", true));
+
+				if (size > 0) {
+					assertSame(desc, asmRemapper.mapMethodDesc("(Lpkg/A;I)Lpkg/A;"));
+				}
+			} finally {
+				remapper.finish();
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+class ExecutorTest {
+	@Test
+	public void shared() throws IOException, InterruptedException {
+		Path input = tmpDir.resolve("in");
+		Files.createDirectories(input.resolve("pkg"));
+
+		for (int i = 0; i < 10; i++) {
+			ClassWriter cw = new ClassWriter(0);
+			cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "pkg/C"+i, null, "java/lang/Object", null);
+			cw.visitEnd();
+			Files.write(input.resolve("pkg/C"+i+".class"), cw.toByteArray());
+		}
+
+		AtomicInteger threads = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(2, task -> {
+			threads.incrementAndGet();
+			return new Thread(task, "shared");
+		});
+		Map<String, String> outputThreads = new ConcurrentHashMap<>();
+
+		try {
+			for (int i = 0; i < 2; i++) {
+				TinyRemapper remapper = TinyRemapper.newRemapper()
+						.withMappings(out -> out.acceptClass("pkg/C0", "pkg/D0"))
+						.executor(executor)
+						.build();
+
+				try {
+					remapper.readInputs(input);
+					remapper.apply((name, data) -> outputThreads.put(name, Thread.currentThread().getName()));
+				} finally {
+					remapper.finish();
+				}
+
+				assertFalse(executor.isShutdown());
+			}
+		} finally {
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		}
+
+		assertEquals(10, outputThreads.size());
+		assertTrue(outputThreads.containsKey("pkg/D0"));
+		assertTrue(outputThreads.values().stream().allMatch("shared"::equals));
+		assertTrue(threads.get() <= 2);
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
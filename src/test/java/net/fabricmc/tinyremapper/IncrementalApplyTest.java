@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.fabricmc.tinyremapper.IMappingProvider.Member;
+
+class IncrementalApplyTest {
+	@Test
+	public void reapply() throws IOException {
+		Files.createDirectories(tmpDir.resolve("pkg"));
+		Files.write(tmpDir.resolve("pkg/A.class"), createClass("pkg/A", "java/lang/Object", "m", null));
+		Files.write(tmpDir.resolve("pkg/B.class"), createClass("pkg/B", "pkg/A", null, "m"));
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.withMappings(out -> {
+					out.acceptClass("pkg/A", "pkg/X");
+					out.acceptMethod(new Member("pkg/A", "m", "()V"), "n");
+				})
+				.incremental(true)
+				.build();
+
+		try {
+			remapper.readInputs(tmpDir);
+			Map<String, byte[]> first = apply(remapper);
+			assertEquals("[pkg/X extends java/lang/Object, <init>, -> java/lang/Object.<init>, n]", TestUtil.describe(first.get("pkg/X")));
+			assertEquals("[pkg/B extends pkg/X, <init>, -> pkg/X.<init>, b, -> pkg/B.n]", TestUtil.describe(first.get("pkg/B")));
+
+			// body only change in B, A's output is reused
+
+			Files.write(tmpDir.resolve("pkg/B.class"), createClass("pkg/B", "pkg/A", null, "m", "m"));
+			remapper.readInputs(tmpDir);
+			Map<String, byte[]> second = apply(remapper);
+			assertSame(first.get("pkg/X"), second.get("pkg/X"));
+			assertEquals("[pkg/B extends pkg/X, <init>, -> pkg/X.<init>, b, -> pkg/B.n, -> pkg/B.n]", TestUtil.describe(second.get("pkg/B")));
+
+			// hierarchy change in B, everything gets processed again
+
+			Files.write(tmpDir.resolve("pkg/B.class"), createClass("pkg/B", "pkg/A", "m", "m"));
+			remapper.readInputs(tmpDir);
+			Map<String, byte[]> third = apply(remapper);
+			assertNotSame(second.get("pkg/X"), third.get("pkg/X"));
+			assertEquals("[pkg/B extends pkg/X, <init>, -> pkg/X.<init>, n, b, -> pkg/B.n]", TestUtil.describe(third.get("pkg/B")));
+
+			// no change
+
+			remapper.readInputs(tmpDir);
+			Map<String, byte[]> fourth = apply(remapper);
+			assertSame(third.get("pkg/X"), fourth.get("pkg/X"));
+			assertSame(third.get("pkg/B"), fourth.get("pkg/B"));
+		} finally {
+			remapper.finish();
+		}
+	}
+
+	private static Map<String, byte[]> apply(TinyRemapper remapper) {
+		Map<String, byte[]> ret = new HashMap<>();
+		remapper.apply(ret::put);
+
+		return ret;
+	}
+
+	private static byte[] createClass(String name, String superName, String declaredMethod, String calledMethod) {
+		return createClass(name, superName, declaredMethod, calledMethod, null);
+	}
+
+	/**
+	 * Create a class with a constructor, optionally a method named declaredMethod and optionally a method b
+	 * invoking calledMethod and calledMethod2 on itself.
+	 */
+	private static byte[] createClass(String name, String superName, String declaredMethod, String calledMethod, String calledMethod2) {
+		ClassWriter cw = TestUtil.newClass(Opcodes.ACC_PUBLIC, name, superName);
+		TestUtil.addConstructor(cw, superName);
+
+		if (declaredMethod != null) {
+			TestUtil.addMethod(cw, declaredMethod);
+		}
+
+		if (calledMethod != null) {
+			MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "b", "()V", null, null);
+			mv.visitCode();
+
+			for (String called : new String[] { calledMethod, calledMethod2 }) {
+				if (called == null) continue;
+
+				mv.visitVarInsn(Opcodes.ALOAD, 0);
+				mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, name, called, "()V", false);
+			}
+
+			mv.visitInsn(Opcodes.RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		return TestUtil.toBytes(cw);
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
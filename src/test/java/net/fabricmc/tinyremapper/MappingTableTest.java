@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MappingTableTest {
+	@Test
+	public void lookup() {
+		MappingTable table = new MappingTable(false);
+
+		for (int i = 0; i < 1000; i++) {
+			assertNull(table.put("pkg/Cls"+(i % 7), "m"+(i / 7), "(I)V", i % 3 - 1, "dst"+i));
+		}
+
+		assertEquals(1000, table.size());
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals("dst"+i, table.get("pkg/Cls"+(i % 7), "m"+(i / 7), "(I)V", i % 3 - 1));
+		}
+
+		assertNull(table.get("pkg/Cls0", "m0", "(J)V", -1));
+		assertNull(table.get("pkg/Cls0", "m0", "(I)V", 5));
+		assertNull(table.get("pkg/Cls", "0m0", "(I)V", -1));
+
+		assertEquals("dst0", table.put("pkg/Cls0", "m0", "(I)V", -1, "replaced"));
+		assertEquals("replaced", table.get("pkg/Cls0", "m0", "(I)V", -1));
+		assertEquals(1000, table.size());
+
+		MappingTable.Entry first = table.entries().get(0);
+		assertEquals("replaced", first.dstName);
+		assertSame(first.desc, table.entries().get(1).desc);
+	}
+
+	@Test
+	public void ignoreDesc() {
+		MappingTable table = new MappingTable(true);
+		table.put("a", "b", "I", -1, "c");
+
+		assertEquals("c", table.get("a", "b", "J", -1));
+		assertEquals("c", table.get("a", "b", null, -1));
+		assertNull(table.entries().get(0).desc);
+	}
+
+	@Test
+	public void sharedPool() {
+		Map<String, String> pool = new HashMap<>();
+		MappingTable methods = new MappingTable(false);
+		MappingTable fields = new MappingTable(false);
+		methods.put(new String("pkg/Cls"), "m", new String("(I)V"), -1, "a", pool);
+		fields.put(new String("pkg/Cls"), "f", new String("I"), -1, "b", pool);
+		fields.put(new String("pkg/Other"), "f", new String("(I)V"), -1, "c", pool);
+
+		MappingTable.Entry method = methods.entries().get(0);
+		assertSame(method.owner, fields.entries().get(0).owner);
+		assertSame(method.desc, fields.entries().get(1).desc);
+
+		MappingTable copy = new MappingTable(false);
+		copy.putAll(fields, null);
+		assertSame(fields.entries().get(0).owner, copy.entries().get(0).owner);
+		assertEquals("c", copy.get("pkg/Other", "f", "(I)V", -1));
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.tinyremapper.api.TrMember.MemberType;
+
+class MemberTableTest {
+	@Test
+	public void lookup() {
+		MemberTable table = new MemberTable(false);
+		List<MemberInstance> members = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			MemberInstance field = new MemberInstance(MemberType.FIELD, null, "m"+(i % 10), "I"+i, 0, i);
+			MemberInstance method = new MemberInstance(MemberType.METHOD, null, "m"+(i % 10), "(I)V"+i, 0, i);
+			assertNull(table.put(field));
+			assertNull(table.put(method));
+			members.add(field);
+			members.add(method);
+		}
+
+		assertEquals(members.size(), table.size());
+		assertEquals(members, new ArrayList<>(table.values()));
+
+		for (MemberInstance member : members) {
+			assertSame(member, table.get(member.type, member.name, member.desc));
+			assertSame(member, table.get(member.type, MemberInstance.getId(member.type, member.name, member.desc, false)));
+		}
+
+		assertNull(table.get(MemberType.FIELD, "m0", "(I)V0"));
+		assertNull(table.get(MemberType.METHOD, "m0", "I0"));
+		assertNull(table.get(MemberType.METHOD, "m10", "(I)V0"));
+
+		int count = 0;
+
+		for (int slot = -1; (slot = table.nextNamed("m3", slot)) >= 0; ) {
+			assertEquals("m3", table.getSlot(slot).name);
+			count++;
+		}
+
+		assertEquals(20, count);
+
+		MemberInstance replacement = new MemberInstance(MemberType.FIELD, null, "m0", "I0", 0, 0);
+		assertSame(members.get(0), table.put(replacement));
+		assertSame(replacement, table.get(MemberType.FIELD, "m0", "I0"));
+		assertSame(replacement, table.values().iterator().next());
+		assertSame(replacement, table.putIfAbsent(new MemberInstance(MemberType.FIELD, null, "m0", "I0", 0, 0)));
+	}
+
+	@Test
+	public void ignoreFieldDesc() {
+		MemberTable table = new MemberTable(true);
+		MemberInstance field = new MemberInstance(MemberType.FIELD, null, "a", "I", 0, 0);
+		MemberInstance method = new MemberInstance(MemberType.METHOD, null, "a", "()V", 0, 1);
+		table.put(field);
+		table.put(method);
+
+		assertSame(field, table.get(MemberType.FIELD, "a", "J"));
+		assertSame(field, table.get(MemberType.FIELD, "a", null));
+		assertSame(field, table.get(MemberType.FIELD, "a"));
+		assertNull(table.get(MemberType.METHOD, "a", "()J"));
+		assertSame(method, table.get(MemberType.METHOD, "a()V"));
+	}
+
+	@Test
+	public void overloads() {
+		MemberTable table = new MemberTable(false);
+		List<MemberInstance> members = new ArrayList<>();
+
+		for (int i = 0; i < 50; i++) {
+			MemberInstance method = new MemberInstance(MemberType.METHOD, null, "a", "(I)V"+i, 0, i);
+			assertNull(table.put(method));
+			members.add(method);
+		}
+
+		MemberInstance replacement = new MemberInstance(MemberType.METHOD, null, "a", "(I)V7", 0, 7);
+		assertSame(members.set(7, replacement), table.put(replacement));
+
+		for (MemberInstance member : members) {
+			assertSame(member, table.get(member.type, member.name, member.desc));
+			assertSame(member, table.get(member.type, MemberInstance.getId(member.type, member.name, member.desc, false)));
+		}
+
+		List<MemberInstance> named = new ArrayList<>();
+
+		for (int slot = -1; (slot = table.nextNamed("a", slot)) >= 0; ) {
+			named.add(table.getSlot(slot));
+		}
+
+		assertEquals(members.size(), named.size());
+		assertTrue(named.containsAll(members));
+		assertEquals(-1, table.nextNamed("b", -1));
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class OutputBufferTest {
+	@Test
+	public void spill() {
+		TinyRemapper remapper = TinyRemapper.newRemapper().build();
+		List<ClassInstance> classes = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < 100; i++) {
+				classes.add(new ClassInstance(remapper, false, new InputTag[0], null, null));
+			}
+		} finally {
+			remapper.finish();
+		}
+
+		OutputBuffer buffer = new OutputBuffer(1000);
+		IntStream.range(0, classes.size()).parallel().forEach(i -> buffer.put(classes.get(i), data(i, 0)));
+		buffer.put(classes.get(0), data(0, 1)); // replaced in memory
+		buffer.put(classes.get(99), data(99, 1)); // replaced in the spill file
+
+		Map<ClassInstance, byte[]> output = new IdentityHashMap<>();
+		buffer.forEach(output::put);
+		buffer.close();
+
+		assertEquals(classes.size(), output.size());
+
+		for (int i = 0; i < classes.size(); i++) {
+			assertArrayEquals(data(i, i == 0 || i == 99 ? 1 : 0), output.get(classes.get(i)), Integer.toString(i));
+		}
+
+		output.clear();
+		buffer.forEach(output::put);
+		assertEquals(0, output.size());
+	}
+
+	private static byte[] data(int index, int version) {
+		byte[] ret = new byte[100 + index];
+		ret[0] = (byte) index;
+		ret[ret.length - 1] = (byte) version;
+
+		return ret;
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OutputConsumerJarTest {
+	@Test
+	public void deterministic() throws IOException {
+		List<String> names = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			names.add("pkg"+(i % 3)+"/sub/C"+i);
+		}
+
+		Path jarA = write(tmpDir.resolve("a.jar"), names, true, true);
+		Collections.shuffle(names, new Random(42));
+		Path jarB = write(tmpDir.resolve("b.jar"), names, true, true);
+
+		assertArrayEquals(Files.readAllBytes(jarA), Files.readAllBytes(jarB));
+
+		try (JarInputStream jis = new JarInputStream(Files.newInputStream(jarA))) {
+			Manifest manifest = jis.getManifest();
+			assertNotNull(manifest);
+			assertEquals("1.0", manifest.getMainAttributes().getValue("Manifest-Version"));
+		}
+
+		try (ZipFile zf = new ZipFile(jarA.toFile())) {
+			List<String> entryNames = new ArrayList<>();
+
+			for (Enumeration<? extends ZipEntry> e = zf.entries(); e.hasMoreElements(); ) {
+				ZipEntry entry = e.nextElement();
+				entryNames.add(entry.getName());
+
+				if (entry.getName().endsWith(".class")) {
+					assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+					assertArrayEquals(content(entry.getName()), readAll(zf, entry), entry.getName());
+				}
+			}
+
+			assertEquals(Arrays.asList("META-INF/", "META-INF/MANIFEST.MF", "pkg0/", "pkg0/sub/"), entryNames.subList(0, 4));
+			assertEquals(100 + 2 + 3 * 2, entryNames.size());
+		}
+	}
+
+	@Test
+	public void streamed() throws IOException {
+		List<String> names = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			names.add("pkg"+(i % 3)+"/sub/C"+i);
+		}
+
+		Path sorted = write(tmpDir.resolve("sorted.jar"), names, true, true);
+		Collections.shuffle(names, new Random(42));
+		Path streamed = write(tmpDir.resolve("streamed.jar"), names, true, false);
+
+		try (JarInputStream jis = new JarInputStream(Files.newInputStream(streamed))) {
+			assertNotNull(jis.getManifest());
+		}
+
+		try (ZipFile expected = new ZipFile(sorted.toFile());
+				ZipFile actual = new ZipFile(streamed.toFile())) {
+			List<String> expectedNames = new ArrayList<>();
+			List<String> actualNames = new ArrayList<>();
+			Collections.list(expected.entries()).forEach(entry -> expectedNames.add(entry.getName()));
+			Collections.list(actual.entries()).forEach(entry -> actualNames.add(entry.getName()));
+
+			assertEquals(expectedNames, actualNames); // same central directory order
+
+			for (String name : expectedNames) {
+				assertArrayEquals(readAll(expected, expected.getEntry(name)), readAll(actual, actual.getEntry(name)), name);
+			}
+		}
+	}
+
+	@Test
+	public void replaced() throws IOException {
+		Path jar = tmpDir.resolve("replaced.jar");
+
+		try (OutputConsumerJar consumer = new OutputConsumerJar.Builder(jar).build()) {
+			consumer.addEntry("a/b.txt", content("first"));
+			consumer.addEntry("a/c.txt", content("other"));
+			consumer.addEntry("a/b.txt", content("second"));
+		}
+
+		try (ZipFile zf = new ZipFile(jar.toFile())) {
+			assertEquals(3, zf.size());
+			assertArrayEquals(content("second"), readAll(zf, zf.getEntry("a/b.txt")));
+		}
+	}
+
+	@Test
+	public void stored() throws IOException {
+		Path jar = write(tmpDir.resolve("stored.jar"), Arrays.asList("a/B", "C"), false, false);
+
+		try (ZipFile zf = new ZipFile(jar.toFile())) {
+			ZipEntry entry = zf.getEntry("a/B.class");
+			assertEquals(ZipEntry.STORED, entry.getMethod());
+			assertArrayEquals(content("a/B.class"), readAll(zf, entry));
+			assertArrayEquals(content("C.class"), readAll(zf, zf.getEntry("C.class")));
+		}
+	}
+
+	@Test
+	public void copyNonClassFiles() throws IOException {
+		Path input = tmpDir.resolve("fabric-api.jar");
+
+		try (InputStream is = OutputConsumerJarTest.class.getClassLoader().getResourceAsStream("integration/bulk/fabric-api-0.35.1+1.17.jar")) {
+			Files.copy(is, input);
+		}
+
+		for (boolean compress : new boolean[] { true, false }) {
+			Path output = tmpDir.resolve("copy-"+compress+".jar");
+
+			try (OutputConsumerJar consumer = new OutputConsumerJar.Builder(output).compress(compress).build()) {
+				consumer.addNonClassFiles(input);
+			}
+
+			try (ZipFile expected = new ZipFile(input.toFile());
+					ZipFile actual = new ZipFile(output.toFile())) {
+				int count = 0;
+
+				for (Enumeration<? extends ZipEntry> e = expected.entries(); e.hasMoreElements(); ) {
+					ZipEntry entry = e.nextElement();
+					if (entry.isDirectory() || entry.getName().endsWith(".class")) continue;
+
+					ZipEntry copy = actual.getEntry(entry.getName());
+					assertNotNull(copy, entry.getName());
+					assertArrayEquals(readAll(expected, entry), readAll(actual, copy), entry.getName());
+					count++;
+				}
+
+				assertEquals(count, Collections.list(actual.entries()).stream().filter(entry -> !entry.isDirectory()).count());
+			}
+		}
+	}
+
+	@Test
+	public void zip64EntryCount() throws IOException {
+		Path output = tmpDir.resolve("many.jar");
+		int count = 70_000;
+
+		try (OutputConsumerJar consumer = new OutputConsumerJar.Builder(output).compress(false).build()) {
+			for (int i = 0; i < count; i++) {
+				consumer.accept("C"+i, new byte[0]);
+			}
+		}
+
+		try (ZipFile zf = new ZipFile(output.toFile())) {
+			assertEquals(count, zf.size());
+		}
+
+		try (ZipReader zip = ZipReader.open(output)) {
+			assertEquals(count, zip.getEntries().size());
+		}
+	}
+
+	private static Path write(Path file, List<String> classNames, boolean compress, boolean sortEntries) throws IOException {
+		try (OutputConsumerJar consumer = new OutputConsumerJar.Builder(file).compress(compress).sortEntries(sortEntries).build()) {
+			consumer.addEntry("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+
+			classNames.parallelStream().forEach(name -> consumer.accept(name, content(name+".class")));
+		}
+
+		return file;
+	}
+
+	private static byte[] content(String name) {
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < 20; i++) {
+			sb.append(name);
+		}
+
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] readAll(ZipFile zf, ZipEntry entry) throws IOException {
+		try (InputStream is = zf.getInputStream(entry)) {
+			ByteArrayOutputStream os = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int len;
+
+			while ((len = is.read(buffer)) >= 0) {
+				os.write(buffer, 0, len);
+			}
+
+			return os.toByteArray();
+		}
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import net.fabricmc.tinyremapper.IMappingProvider.Member;
+
+class OverlayTest {
+	@Test
+	public void overlay() throws IOException {
+		Path classPath = tmpDir.resolve("cp");
+		Files.createDirectories(classPath.resolve("pkg"));
+		Files.write(classPath.resolve("pkg/Base.class"), createClass("pkg/Base", "java/lang/Object", "m"));
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.withMappings(out -> {
+					out.acceptClass("pkg/Base", "pkg/MappedBase");
+					out.acceptMethod(new Member("pkg/Base", "m", "()V"), "mapped");
+					out.acceptMethod(new Member("pkg/ModA", "own", "()V"), "ownMapped");
+				})
+				.build();
+
+		try {
+			remapper.readClassPath(classPath);
+
+			for (String mod : new String[] { "pkg/ModA", "pkg/ModB" }) {
+				Path input = tmpDir.resolve(mod);
+				Files.createDirectories(input.resolve("pkg"));
+				Files.write(input.resolve(mod+".class"), createClass(mod, "pkg/Base", "m", "own"));
+
+				TinyRemapper overlay = remapper.newOverlay();
+				Map<String, byte[]> output = new HashMap<>();
+
+				try {
+					overlay.readInputs(input);
+					overlay.apply(output::put);
+				} finally {
+					overlay.finish();
+				}
+
+				assertEquals(1, output.size());
+				assertEquals("["+mod+" extends pkg/MappedBase, mapped, "+(mod.equals("pkg/ModA") ? "ownMapped]" : "own]"), TestUtil.describe(output.get(mod)));
+			}
+
+			ClassInstance base = remapper.defaultState.getClass("pkg/Base");
+			assertTrue(base.getChildren().isEmpty());
+			assertEquals("mapped", base.getMethod("m", "()V").getNewName());
+			assertEquals(1, remapper.defaultState.classes.size());
+		} finally {
+			remapper.finish();
+		}
+	}
+
+	private static byte[] createClass(String name, String superName, String... methods) {
+		ClassWriter cw = TestUtil.newClass(Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, superName);
+
+		for (String method : methods) {
+			TestUtil.addMethod(cw, method);
+		}
+
+		return TestUtil.toBytes(cw);
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import net.fabricmc.tinyremapper.api.TrMember.MemberType;
+
+class PrecomputeResolutionTest {
+	@Test
+	public void precomputeResolution() throws IOException {
+		Path input = tmpDir.resolve("in");
+		Files.createDirectories(input.resolve("pkg"));
+		Files.write(input.resolve("pkg/I.class"), createClass("pkg/I", true, "java/lang/Object", null, "d", "F"));
+		Files.write(input.resolve("pkg/J.class"), createClass("pkg/J", true, "java/lang/Object", "pkg/I", "d", "G"));
+		Files.write(input.resolve("pkg/A.class"), createClass("pkg/A", false, "java/lang/Object", "pkg/I", "m", "f"));
+		Files.write(input.resolve("pkg/B.class"), createClass("pkg/B", false, "pkg/A", null));
+		Files.write(input.resolve("pkg/C.class"), createClass("pkg/C", false, "pkg/B", "pkg/J", "n", "F"));
+		Files.write(input.resolve("pkg/D.class"), createClass("pkg/D", false, "pkg/C", null));
+		Files.write(input.resolve("pkg/E.class"), createClass("pkg/E", false, "pkg/D", null, "m", "G"));
+
+		List<String> expected = resolveAll(input, TinyRemapper.newRemapper());
+		assertEquals(expected, resolveAll(input, TinyRemapper.newRemapper().precomputeResolution(true)));
+		assertEquals(expected, resolveAll(input, TinyRemapper.newRemapper().resolveCacheSize(4)));
+
+		TinyRemapper remapper = TinyRemapper.newRemapper().precomputeResolution(true).build();
+
+		try {
+			remapper.readInputs(input);
+			remapper.apply((name, data) -> { });
+
+			ClassInstance cls = remapper.defaultState.getClass("pkg/D");
+			assertEquals("pkg/C", cls.resolve(MemberType.METHOD, "n", "()V").getOwner().getName());
+			assertEquals("pkg/J", cls.resolve(MemberType.METHOD, "d", "()V").getOwner().getName());
+			assertEquals("pkg/C", cls.resolve(MemberType.FIELD, "F", "I").getOwner().getName());
+			assertNull(cls.resolve(MemberType.METHOD, "missing", "()V"));
+
+			cls = remapper.defaultState.getClass("pkg/E"); // shares C's resolution for the members it doesn't declare
+			assertEquals("pkg/E", cls.resolve(MemberType.METHOD, "m", "()V").getOwner().getName());
+			assertEquals("pkg/E", cls.resolve(MemberType.FIELD, "G", "I").getOwner().getName());
+			assertEquals("pkg/C", cls.resolve(MemberType.METHOD, "n", "()V").getOwner().getName());
+			assertEquals("pkg/J", cls.resolve(MemberType.METHOD, "d", "()V").getOwner().getName());
+			assertNull(cls.resolve(MemberType.FIELD, "missing", "I"));
+		} finally {
+			remapper.finish();
+		}
+	}
+
+	/**
+	 * Resolve every combination of class and member name, yielding the owners or null if unresolvable.
+	 */
+	private static List<String> resolveAll(Path input, TinyRemapper.Builder builder) {
+		TinyRemapper remapper = builder.build();
+		List<String> ret = new ArrayList<>();
+
+		try {
+			remapper.readInputs(input);
+			remapper.apply((name, data) -> { });
+
+			for (String name : new String[] { "pkg/I", "pkg/J", "pkg/A", "pkg/B", "pkg/C", "pkg/D", "pkg/E" }) {
+				ClassInstance cls = remapper.defaultState.getClass(name);
+
+				for (String member : new String[] { "d", "m", "n", "missing" }) {
+					MemberInstance resolved = cls.resolve(MemberType.METHOD, member, "()V");
+					ret.add(name+"."+member+" -> "+(resolved != null ? resolved.getOwner().getName() : null));
+				}
+
+				for (String member : new String[] { "F", "G", "f", "missing" }) {
+					MemberInstance resolved = cls.resolve(MemberType.FIELD, member, "I");
+					ret.add(name+"."+member+" -> "+(resolved != null ? resolved.getOwner().getName() : null));
+				}
+			}
+		} finally {
+			remapper.finish();
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Create a class with a public method for every lower case and a public field for every upper case member name.
+	 */
+	private static byte[] createClass(String name, boolean isInterface, String superName, /* @Nullable */ String iface, String... members) {
+		int access = Opcodes.ACC_PUBLIC | (isInterface ? Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT : Opcodes.ACC_SUPER);
+		ClassWriter cw = TestUtil.newClass(access, name, superName, iface != null ? new String[] { iface } : new String[0]);
+
+		for (String member : members) {
+			if (Character.isUpperCase(member.charAt(0))) {
+				cw.visitField(Opcodes.ACC_PUBLIC | (isInterface ? Opcodes.ACC_STATIC | Opcodes.ACC_FINAL : 0), member, "I", null, null).visitEnd();
+			} else {
+				TestUtil.addMethod(cw, member);
+			}
+		}
+
+		return TestUtil.toBytes(cw);
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.fabricmc.tinyremapper.IMappingProvider.Member;
+import net.fabricmc.tinyremapper.api.TrClass;
+import net.fabricmc.tinyremapper.api.TrEnvironment;
+
+class RemapperMetricsTest {
+	@Test
+	public void phases() throws IOException {
+		Path input = tmpDir.resolve("in");
+		Files.createDirectories(input.resolve("pkg"));
+		Files.write(input.resolve("pkg/A.class"), createClass("pkg/A", "java/lang/Object"));
+		Files.write(input.resolve("pkg/B.class"), createClass("pkg/B", "pkg/A"));
+
+		Map<RemapperMetrics.Phase, Integer> phases = new EnumMap<>(RemapperMetrics.Phase.class);
+		List<String> events = Collections.synchronizedList(new ArrayList<>());
+		long[] resolves = new long[2];
+
+		RemapperMetrics metrics = new RemapperMetrics() {
+			@Override
+			public void pathRead(Path path, boolean isInput, int classCount, long nanos) {
+				events.add("read "+input.relativize(path)+" "+isInput+" "+classCount);
+			}
+
+			@Override
+			public synchronized void phaseCompleted(Phase phase, TrEnvironment env, int count, long nanos) {
+				assertTrue(nanos >= 0);
+				phases.merge(phase, count, Integer::sum);
+			}
+
+			@Override
+			public void stateProcessorCompleted(TinyRemapper.StateProcessor processor, TrEnvironment env, long nanos) {
+				events.add("state processor");
+			}
+
+			@Override
+			public void classApplied(TrClass cls, int size, long nanos) {
+				assertTrue(size > 0);
+				events.add("applied "+cls.getName());
+			}
+
+			@Override
+			public void resolveCacheStats(long hits, long misses, long evictions) {
+				resolves[0] += hits;
+				resolves[1] += misses;
+			}
+		};
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.withMappings(out -> out.acceptField(new Member("pkg/A", "f", "I"), "mapped"))
+				.extraStateProcessor(env -> { })
+				.metrics(metrics)
+				.build();
+
+		try {
+			remapper.readInputs(input);
+			remapper.apply((name, data) -> { });
+		} finally {
+			remapper.finish();
+		}
+
+		Collections.sort(events);
+		assertEquals("[applied pkg/A, applied pkg/B, read  true 2, state processor]", events.toString());
+		assertEquals(2, phases.get(RemapperMetrics.Phase.MRJ_SETUP));
+		assertEquals(1, phases.get(RemapperMetrics.Phase.LOAD_MAPPINGS));
+		assertEquals(2, phases.get(RemapperMetrics.Phase.MERGE));
+		assertEquals(1, phases.get(RemapperMetrics.Phase.PROPAGATE));
+		assertEquals(2, phases.get(RemapperMetrics.Phase.APPLY));
+		assertTrue(resolves[1] > 0);
+		assertTrue(resolves[0] > 0);
+	}
+
+	/**
+	 * Create a class with a method reading the field f inherited from pkg/A twice.
+	 */
+	private static byte[] createClass(String name, String superName) {
+		ClassWriter cw = TestUtil.newClass(Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, superName);
+
+		if (superName.equals("java/lang/Object")) {
+			cw.visitField(Opcodes.ACC_PUBLIC, "f", "I", null, null).visitEnd();
+		}
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "m", "()I", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitFieldInsn(Opcodes.GETFIELD, name, "f", "I");
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitFieldInsn(Opcodes.GETFIELD, name, "f", "I");
+		mv.visitInsn(Opcodes.IADD);
+		mv.visitInsn(Opcodes.IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		return TestUtil.toBytes(cw);
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
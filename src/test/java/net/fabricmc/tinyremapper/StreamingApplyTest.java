@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+class StreamingApplyTest {
+	@Test
+	public void tagged() throws IOException {
+		Path dirA = write("a", "pkg/A", "pkg/Shared");
+		Path dirB = write("b", "pkg/B", "pkg/Shared");
+		Path dirC = write("c", "pkg/C");
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.withMappings(out -> out.acceptClass("pkg/Shared", "pkg/Mapped"))
+				.build();
+		Map<String, Integer> outputA = new TreeMap<>();
+		Map<String, Integer> outputB = new TreeMap<>();
+
+		try {
+			InputTag tagA = remapper.createInputTag();
+			InputTag tagB = remapper.createInputTag();
+			InputTag tagUnused = remapper.createInputTag();
+			remapper.readInputs(tagA, dirA);
+			remapper.readInputs(tagB, dirB);
+			remapper.readInputs(dirC);
+
+			BiConsumer<String, byte[]> consumerB = counter(outputB);
+			Map<InputTag, BiConsumer<String, byte[]>> consumers = new HashMap<>();
+			consumers.put(tagA, counter(outputA));
+			consumers.put(tagB, consumerB);
+			consumers.put(tagUnused, consumerB); // untagged classes still reach B only once
+			remapper.apply(consumers);
+		} finally {
+			remapper.finish();
+		}
+
+		assertEquals("{pkg/A=1, pkg/C=1, pkg/Mapped=1}", outputA.toString());
+		assertEquals("{pkg/B=1, pkg/C=1, pkg/Mapped=1}", outputB.toString());
+	}
+
+	@Test
+	public void fixPackageAccess() throws IOException {
+		Path dir = tmpDir.resolve("access");
+		Files.createDirectories(dir.resolve("pkg"));
+		Files.write(dir.resolve("pkg/Target.class"), createClass("pkg/Target", 0, null));
+		Files.write(dir.resolve("pkg/User.class"), createClass("pkg/User", Opcodes.ACC_PUBLIC, "pkg/Target"));
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.withMappings(out -> out.acceptClass("pkg/Target", "other/Target"))
+				.fixPackageAccess(true)
+				.build();
+		Map<String, Integer> counts = new TreeMap<>();
+		Map<String, byte[]> output = new HashMap<>();
+
+		try {
+			remapper.readInputs(dir);
+			remapper.apply((name, data) -> {
+				counter(counts).accept(name, data);
+				output.put(name, data);
+			});
+		} finally {
+			remapper.finish();
+		}
+
+		assertEquals("{other/Target=1, pkg/User=1}", counts.toString());
+		assertTrue((new ClassReader(output.get("other/Target")).getAccess() & Opcodes.ACC_PUBLIC) != 0);
+		assertEquals(0, new ClassReader(output.get("pkg/User")).getAccess() & ~(Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER));
+	}
+
+	@Test
+	public void fixPackageAccessFromPreApplyVisitor() throws IOException {
+		Path dir = tmpDir.resolve("accessVisitor");
+		Files.createDirectories(dir.resolve("pkg"));
+		Files.write(dir.resolve("pkg/Target.class"), createClass("pkg/Target", 0, null));
+		Files.write(dir.resolve("pkg/User.class"), createClass("pkg/User", Opcodes.ACC_PUBLIC, null));
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.withMappings(out -> out.acceptClass("pkg/Target", "other/Target"))
+				.fixPackageAccess(true)
+				.extraPreApplyVisitor((cls, next) -> {
+					if (!cls.getName().equals("pkg/User")) return next;
+
+					return new ClassVisitor(Opcodes.ASM9, next) { // adds the reference to pkg/Target
+						@Override
+						public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+							return new MethodVisitor(Opcodes.ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+								@Override
+								public void visitCode() {
+									super.visitCode();
+									super.visitTypeInsn(Opcodes.NEW, "pkg/Target");
+									super.visitInsn(Opcodes.POP);
+								}
+							};
+						}
+					};
+				})
+				.build();
+		Map<String, byte[]> output = new HashMap<>();
+
+		try {
+			remapper.readInputs(dir);
+			remapper.apply(output::put);
+		} finally {
+			remapper.finish();
+		}
+
+		assertEquals(2, output.size());
+		assertTrue((new ClassReader(output.get("other/Target")).getAccess() & Opcodes.ACC_PUBLIC) != 0);
+	}
+
+	@Test
+	public void bufferedOutputWithoutMonitor() throws Exception {
+		Path dir = write("bufferedOutput", "pkg/A");
+
+		TinyRemapper remapper = TinyRemapper.newRemapper().build();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Map<String, Integer> output = new TreeMap<>();
+
+		try {
+			InputTag tag = remapper.createInputTag();
+			remapper.readInputs(tag, dir);
+			remapper.apply((name, data) -> {
+				try { // the consumer waits for another thread using the remapper
+					executor.submit(remapper::getEnvironment).get(10, TimeUnit.SECONDS);
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+
+				counter(output).accept(name, data);
+			}, tag);
+		} finally {
+			executor.shutdown();
+			remapper.finish();
+		}
+
+		assertEquals("{pkg/A=1}", output.toString());
+	}
+
+	@Test
+	public void async() throws IOException {
+		Path dirA = write("asyncA", "pkg/A", "pkg/Shared");
+		Path dirB = write("asyncB", "pkg/B");
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.withMappings(out -> out.acceptClass("pkg/Shared", "pkg/Mapped"))
+				.build();
+		Map<String, Integer> outputA = new TreeMap<>();
+		Map<String, Integer> outputB = new TreeMap<>();
+
+		try {
+			InputTag tagA = remapper.createInputTag();
+			InputTag tagB = remapper.createInputTag();
+			remapper.readInputsAsync(tagA, dirA);
+			remapper.readInputsAsync(tagB, dirB);
+
+			CompletableFuture<?> applyA = remapper.applyAsync(counter(outputA), tagA);
+			CompletableFuture<?> applyB = remapper.applyAsync(counter(outputB), tagB);
+			applyB.join();
+			assertTrue(applyA.isDone());
+		} finally {
+			remapper.finish();
+		}
+
+		assertEquals("{pkg/A=1, pkg/Mapped=1}", outputA.toString());
+		assertEquals("{pkg/B=1}", outputB.toString());
+	}
+
+	@Test
+	public void backPressure() throws IOException {
+		String[] classes = new String[50];
+
+		for (int i = 0; i < classes.length; i++) {
+			classes[i] = "pkg/C"+i;
+		}
+
+		Path dir = write("backPressure", classes);
+		AtomicInteger pending = new AtomicInteger();
+		AtomicInteger maxPending = new AtomicInteger();
+		Map<String, Integer> output = new TreeMap<>();
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.threads(4)
+				.maxPendingOutputs(2)
+				.extraPreApplyVisitor((cls, next) -> {
+					maxPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+					return next;
+				})
+				.build();
+
+		try {
+			remapper.readInputs(dir);
+			remapper.apply((name, data) -> {
+				try {
+					Thread.sleep(1); // slow consumer
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+
+				counter(output).accept(name, data);
+				pending.decrementAndGet();
+			});
+		} finally {
+			remapper.finish();
+		}
+
+		assertEquals(classes.length, output.size());
+		assertTrue(maxPending.get() <= 2);
+	}
+
+	@Test
+	public void singleThread() throws IOException {
+		String[] classes = new String[600]; // enough for splitting the merge into multiple batches
+
+		for (int i = 0; i < classes.length; i++) {
+			classes[i] = "pkg/S"+i;
+		}
+
+		Path dir = write("singleThread", classes);
+		Map<String, Integer> output = new TreeMap<>();
+		TinyRemapper remapper = TinyRemapper.newRemapper().threads(1).build();
+
+		try {
+			remapper.readInputs(dir);
+			remapper.applyAsync(counter(output)).join();
+		} finally {
+			remapper.finish();
+		}
+
+		assertEquals(classes.length, output.size());
+	}
+
+	@Test
+	public void readDuringApply() throws IOException {
+		String[] classes = new String[300];
+
+		for (int i = 0; i < classes.length; i++) {
+			classes[i] = "pkg/R"+i;
+		}
+
+		Path dirA = write("readDuringApplyA", classes);
+		Path dirB = write("readDuringApplyB", "pkg/Late");
+
+		for (int run = 0; run < 20; run++) {
+			TinyRemapper remapper = TinyRemapper.newRemapper().keepInputData(true).build();
+			Map<String, Integer> first = new TreeMap<>();
+			Map<String, Integer> second = new TreeMap<>();
+
+			try {
+				remapper.readInputs(dirA);
+				CompletableFuture<?> apply = remapper.applyAsync(counter(first));
+				remapper.readInputsAsync(dirB); // overlaps the running apply, has to be picked up by the next one
+				apply.join();
+				remapper.apply(counter(second));
+			} finally {
+				remapper.finish();
+			}
+
+			assertEquals(classes.length, first.size());
+			assertNull(first.get("pkg/Late"));
+			assertEquals(classes.length + 1, second.size());
+			assertEquals(1, second.get("pkg/Late"));
+		}
+	}
+
+	@Test
+	public void readWhilePreparingApply() throws Exception {
+		Path dirA = write("readWhilePreparingA", "pkg/A");
+		Path dirB = write("readWhilePreparingB", "pkg/Late");
+
+		CountDownLatch preparing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicBoolean released = new AtomicBoolean();
+
+		TinyRemapper remapper = TinyRemapper.newRemapper()
+				.keepInputData(true)
+				.extraStateProcessor(state -> {
+					preparing.countDown();
+
+					try {
+						released.set(release.await(10, TimeUnit.SECONDS));
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+				})
+				.build();
+		Map<String, Integer> first = new TreeMap<>();
+		Map<String, Integer> second = new TreeMap<>();
+
+		try {
+			remapper.readInputs(dirA);
+			CompletableFuture<?> apply = remapper.applyAsync(counter(first));
+			assertTrue(preparing.await(10, TimeUnit.SECONDS));
+
+			// the apply is blocked in its preparation, starting the read must not wait for it
+			CompletableFuture<?> read = remapper.readInputsAsync(dirB);
+			release.countDown();
+			read.get(10, TimeUnit.SECONDS);
+			apply.get(10, TimeUnit.SECONDS);
+			assertTrue(released.get());
+
+			remapper.apply(counter(second));
+		} finally {
+			release.countDown();
+			remapper.finish();
+		}
+
+		assertEquals(1, first.size());
+		assertEquals(2, second.size());
+		assertEquals(1, second.get("pkg/Late"));
+	}
+
+	private static BiConsumer<String, byte[]> counter(Map<String, Integer> counts) {
+		return (name, data) -> {
+			synchronized (counts) {
+				counts.merge(name, 1, Integer::sum);
+			}
+		};
+	}
+
+	private static Path write(String dirName, String... classes) throws IOException {
+		Path dir = tmpDir.resolve(dirName);
+		Files.createDirectories(dir.resolve("pkg"));
+
+		for (String cls : classes) {
+			Files.write(dir.resolve(cls+".class"), createClass(cls, Opcodes.ACC_PUBLIC, null));
+		}
+
+		return dir;
+	}
+
+	/**
+	 * Create a class with a constructor, which optionally instantiates another class.
+	 */
+	private static byte[] createClass(String name, int access, String instantiated) {
+		ClassWriter cw = TestUtil.newClass(access | Opcodes.ACC_SUPER, name, "java/lang/Object");
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+
+		if (instantiated != null) {
+			mv.visitTypeInsn(Opcodes.NEW, instantiated);
+			mv.visitInsn(Opcodes.POP);
+		}
+
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		return TestUtil.toBytes(cw);
+	}
+
+	@TempDir
+	static Path tmpDir;
+}
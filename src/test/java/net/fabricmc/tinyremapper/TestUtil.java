@@ -25,6 +25,15 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 
 public class TestUtil {
 	public static Path folder = null;
@@ -61,4 +70,95 @@ public class TestUtil {
 	public static Path output(String path) {
 		return folder.resolve(path.replace("input", "output").substring(1));
 	}
+
+	/**
+	 * Start writing a Java 8 class, complete it with {@link #toBytes}.
+	 */
+	public static ClassWriter newClass(int access, String name, String superName, String... interfaces) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, access, name, null, superName, interfaces.length > 0 ? interfaces : null);
+
+		return cw;
+	}
+
+	/**
+	 * Add a public constructor only invoking the super class' no-arg constructor.
+	 */
+	public static void addConstructor(ClassVisitor cv, String superName) {
+		MethodVisitor mv = cv.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Add an empty public method with the desc ()V.
+	 */
+	public static void addMethod(ClassVisitor cv, String name) {
+		MethodVisitor mv = cv.visitMethod(Opcodes.ACC_PUBLIC, name, "()V", null, null);
+		mv.visitCode();
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	public static byte[] toBytes(ClassWriter cw) {
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Describe a class as its name and super class, the field and method names in declaration order, field signatures
+	 * and the types, members and constants referenced by each method's code following the method.
+	 */
+	public static String describe(byte[] data) {
+		List<String> ret = new ArrayList<>();
+
+		new ClassReader(data).accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+				ret.add(name+" extends "+superName);
+			}
+
+			@Override
+			public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+				ret.add(signature != null ? name+" "+signature : name);
+
+				return null;
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+				ret.add(name);
+
+				return new MethodVisitor(Opcodes.ASM9) {
+					@Override
+					public void visitTypeInsn(int opcode, String type) {
+						ret.add("-> "+type);
+					}
+
+					@Override
+					public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+						ret.add("-> "+owner+"."+name);
+					}
+
+					@Override
+					public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+						ret.add("-> "+owner+"."+name);
+					}
+
+					@Override
+					public void visitLdcInsn(Object value) {
+						ret.add("-> \""+value+"\"");
+					}
+				};
+			}
+		}, 0);
+
+		return ret.toString();
+	}
 }
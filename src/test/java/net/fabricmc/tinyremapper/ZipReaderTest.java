@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2016, 2018, Player, asie
+ * Copyright (c) 2026, FabricMC
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.fabricmc.tinyremapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ZipReaderTest {
+	@Test
+	public void storedAndDeflated() throws IOException {
+		Path file = tmpDir.resolve("test.jar");
+		byte[] random = new byte[100_000];
+		new Random(42).nextBytes(random);
+		byte[] text = new byte[100_000];
+
+		for (int i = 0; i < text.length; i++) {
+			text[i] = (byte) ('a' + i % 7);
+		}
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(file))) {
+			zos.setComment("comment");
+			zos.putNextEntry(new ZipEntry("pkg/"));
+			zos.closeEntry();
+
+			ZipEntry stored = new ZipEntry("pkg/Stored.class");
+			CRC32 crc = new CRC32();
+			crc.update(random);
+			stored.setMethod(ZipEntry.STORED);
+			stored.setSize(random.length);
+			stored.setCrc(crc.getValue());
+			zos.putNextEntry(stored);
+			zos.write(random);
+			zos.closeEntry();
+
+			zos.putNextEntry(new ZipEntry("pkg/Deflated.class"));
+			zos.write(text);
+			zos.closeEntry();
+
+			zos.putNextEntry(new ZipEntry("pkg/Empty.class"));
+			zos.closeEntry();
+		}
+
+		try (ZipReader zip = ZipReader.open(file)) {
+			List<ZipReader.Entry> entries = zip.getEntries();
+			Inflater inflater = new Inflater(true);
+
+			assertEquals(4, entries.size());
+			assertEquals("pkg/", entries.get(0).name);
+			assertEquals(true, entries.get(0).isDirectory());
+			assertArrayEquals(random, zip.read(entries.get(1), inflater));
+			assertArrayEquals(text, zip.read(entries.get(2), inflater));
+			assertArrayEquals(new byte[0], zip.read(entries.get(3), inflater));
+
+			inflater.end();
+		}
+	}
+
+	@Test
+	public void matchesZipFile() throws IOException {
+		Path file = tmpDir.resolve("fabric-api.jar");
+
+		try (InputStream is = ZipReaderTest.class.getClassLoader().getResourceAsStream("integration/bulk/fabric-api-0.35.1+1.17.jar")) {
+			Files.copy(is, file);
+		}
+
+		try (ZipFile zf = new ZipFile(file.toFile());
+				ZipReader zip = ZipReader.open(file)) {
+			List<String> expectedNames = new ArrayList<>();
+
+			for (Enumeration<? extends ZipEntry> e = zf.entries(); e.hasMoreElements(); ) {
+				expectedNames.add(e.nextElement().getName());
+			}
+
+			List<String> names = new ArrayList<>();
+			Inflater inflater = new Inflater(true);
+
+			for (ZipReader.Entry entry : zip.getEntries()) {
+				names.add(entry.name);
+
+				try (InputStream is = zf.getInputStream(zf.getEntry(entry.name))) {
+					assertArrayEquals(readAll(is), zip.read(entry, inflater), entry.name);
+				}
+			}
+
+			inflater.end();
+
+			assertEquals(expectedNames, names);
+		}
+	}
+
+	@Test
+	public void utf8Names() throws IOException {
+		Path file = tmpDir.resolve("utf8.zip");
+		String name = "pkg/Café.class";
+
+		try (OutputStream os = Files.newOutputStream(file);
+				ZipOutputStream zos = new ZipOutputStream(os, StandardCharsets.UTF_8)) {
+			zos.putNextEntry(new ZipEntry(name));
+			zos.write(1);
+			zos.closeEntry();
+		}
+
+		try (ZipReader zip = ZipReader.open(file)) {
+			assertEquals(name, zip.getEntries().get(0).name);
+		}
+	}
+
+	@Test
+	public void mrjVersionFromEntryName() {
+		String name = "com/github/logicf/App";
+
+		assertEquals(9, TinyRemapper.analyzeMrjVersion("META-INF/versions/9/com/github/logicf/App.class", name));
+		assertEquals(16, TinyRemapper.analyzeMrjVersion("META-INF/versions/16/com/github/logicf/App.class", name));
+		assertEquals(ClassInstance.MRJ_DEFAULT, TinyRemapper.analyzeMrjVersion("com/github/logicf/App.class", name));
+		assertEquals(ClassInstance.MRJ_DEFAULT, TinyRemapper.analyzeMrjVersion("META-INF/versions/16/abc/com/github/logicf/App.class", name));
+		assertEquals(ClassInstance.MRJ_DEFAULT, TinyRemapper.analyzeMrjVersion("versions/16/com/github/logicf/App.class", name));
+		assertEquals(ClassInstance.MRJ_DEFAULT, TinyRemapper.analyzeMrjVersion("META-INF/versions/9aa/com/github/logicf/App.class", name));
+		assertEquals(ClassInstance.MRJ_DEFAULT, TinyRemapper.analyzeMrjVersion("App.class", name));
+	}
+
+	private static byte[] readAll(InputStream is) throws IOException {
+		byte[] buffer = new byte[8192];
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		int len;
+
+		while ((len = is.read(buffer)) >= 0) {
+			os.write(buffer, 0, len);
+		}
+
+		return os.toByteArray();
+	}
+
+	@TempDir
+	static Path tmpDir;
+}